@@ -9,3 +9,25 @@ aws dynamodb create-table --table-name Order --attribute-definitions AttributeNa
 
 # CartItem table (composite key)
 aws dynamodb create-table --table-name CartItem --attribute-definitions AttributeName=userId,AttributeType=S AttributeName=productId,AttributeType=S --key-schema AttributeName=userId,KeyType=HASH AttributeName=productId,KeyType=RANGE --billing-mode PAY_PER_REQUEST --region ap-south-1
+
+# ChangeLog table (cross-node change feed, expires after changefeed.retention-hours)
+aws dynamodb create-table --table-name ChangeLog --attribute-definitions AttributeName=bucket,AttributeType=N AttributeName=sequence,AttributeType=S --key-schema AttributeName=bucket,KeyType=HASH AttributeName=sequence,KeyType=RANGE --billing-mode PAY_PER_REQUEST --region ap-south-1
+aws dynamodb update-time-to-live --table-name ChangeLog --time-to-live-specification Enabled=true,AttributeName=expiresAt --region ap-south-1
+
+# SalesSnapshot table (periodic snapshots of in-memory sales counters, one partition per analytics shard, with its lease row)
+aws dynamodb create-table --table-name SalesSnapshot --attribute-definitions AttributeName=shardId,AttributeType=S AttributeName=snapshotKey,AttributeType=S --key-schema AttributeName=shardId,KeyType=HASH AttributeName=snapshotKey,KeyType=RANGE --billing-mode PAY_PER_REQUEST --region ap-south-1
+aws dynamodb update-time-to-live --table-name SalesSnapshot --time-to-live-specification Enabled=true,AttributeName=expiresAt --region ap-south-1
+
+# UserEmail table (one marker per registered email, enforces uniqueness with a conditional write)
+aws dynamodb create-table --table-name UserEmail --attribute-definitions AttributeName=email,AttributeType=S --key-schema AttributeName=email,KeyType=HASH --billing-mode PAY_PER_REQUEST --region ap-south-1
+
+# Idempotency table (stored checkout responses for Idempotency-Key retries, expires after idempotency.ttl-hours)
+aws dynamodb create-table --table-name Idempotency --attribute-definitions AttributeName=idempotencyKey,AttributeType=S --key-schema AttributeName=idempotencyKey,KeyType=HASH --billing-mode PAY_PER_REQUEST --region ap-south-1
+aws dynamodb update-time-to-live --table-name Idempotency --time-to-live-specification Enabled=true,AttributeName=expiresAt --region ap-south-1
+
+# Outbox table (events written with their order, drained by OutboxDispatcher; shard = 0..outbox.shards-1,
+# due events are read from shard-availableAt-index)
+aws dynamodb create-table --table-name Outbox --attribute-definitions AttributeName=shard,AttributeType=N AttributeName=eventId,AttributeType=S AttributeName=availableAt,AttributeType=N --key-schema AttributeName=shard,KeyType=HASH AttributeName=eventId,KeyType=RANGE --global-secondary-indexes '[{"IndexName":"shard-availableAt-index","KeySchema":[{"AttributeName":"shard","KeyType":"HASH"},{"AttributeName":"availableAt","KeyType":"RANGE"}],"Projection":{"ProjectionType":"ALL"}}]' --billing-mode PAY_PER_REQUEST --region ap-south-1
+
+# OutboxDeadLetter table (outbox events that exhausted outbox.max-attempts; requeue via /api/admin/outbox)
+aws dynamodb create-table --table-name OutboxDeadLetter --attribute-definitions AttributeName=shard,AttributeType=N AttributeName=eventId,AttributeType=S --key-schema AttributeName=shard,KeyType=HASH AttributeName=eventId,KeyType=RANGE --billing-mode PAY_PER_REQUEST --region ap-south-1
@@ -0,0 +1,38 @@
+package com.fashionretail.actuator;
+
+import com.fashionretail.service.ProductCache;
+import com.fashionretail.util.HeavyHitters;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@Endpoint(id = "hotproducts")
+@RequiredArgsConstructor
+public class HotProductsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final ProductCache productCache;
+
+    // Unauthenticated: any limit is accepted and clamped, the sketch caps it at its capacity
+    @ReadOperation
+    public List<Map<String, Object>> hotProducts(@Nullable Integer limit) {
+        return productCache.hotKeys(limit != null ? Math.max(0, limit) : DEFAULT_LIMIT).stream()
+                .map(this::toMap)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toMap(HeavyHitters.Entry<String> entry) {
+        return Map.of(
+                "productId", entry.key(),
+                "reads", entry.count(),
+                "maxOvercount", entry.error());
+    }
+}
@@ -0,0 +1,30 @@
+package com.fashionretail.actuator;
+
+import com.fashionretail.tracing.RequestTracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "requesttraces")
+@RequiredArgsConstructor
+public class RequestTracesEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final RequestTracer requestTracer;
+
+    /**
+     * Slowest recent requests with their layer breakdown. {@code endpoint} filters by
+     * method and route, e.g. {@code POST /api/orders}.
+     */
+    @ReadOperation
+    public List<Map<String, Object>> slowRequests(@Nullable String endpoint, @Nullable Integer limit) {
+        return requestTracer.slowRequests(endpoint, limit != null ? limit : DEFAULT_LIMIT);
+    }
+}
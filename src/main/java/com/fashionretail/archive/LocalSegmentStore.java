@@ -0,0 +1,75 @@
+package com.fashionretail.archive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps archive objects as files in one directory. Used for single-node deployments and as the
+ * local stand-in for object storage.
+ */
+public class LocalSegmentStore implements SegmentStore {
+
+    private final Path directory;
+    private final boolean shared;
+
+    /**
+     * {@code shared} declares that {@code directory} is a persistent volume mounted on every
+     * node; otherwise the store only serves reads and the archiver will not run against it.
+     */
+    public LocalSegmentStore(Path directory, boolean shared) {
+        this.directory = directory;
+        this.shared = shared;
+    }
+
+    @Override
+    public boolean isDurable() {
+        return shared;
+    }
+
+    @Override
+    public void put(String name, Path file) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + ".tmp");
+        Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public byte[] read(String name) throws IOException {
+        return Files.readAllBytes(directory.resolve(name));
+    }
+
+    @Override
+    public byte[] read(String name, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(directory.resolve(name), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of " + name);
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public List<String> list(String suffix) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fashionretail.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fashionretail.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold tier for orders. Each archival run writes one immutable segment: orders sorted by id,
+ * packed into gzip-compressed NDJSON blocks ({@code .seg}), plus its sparse index
+ * ({@code .idx}). The index is written last, so a segment without one is ignored. Indexes of
+ * all segments stay in memory; reads fetch only the blocks they need.
+ * <p>
+ * An order can appear in more than one segment (re-archived after an update, or after a run
+ * that failed before deleting from the hot table); the newest segment wins.
+ */
+@Slf4j
+@Component
+public class OrderArchive {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private record Segment(String name, SegmentIndex index) {
+    }
+
+    private final SegmentStore store;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader orderReader;
+    private final MeterRegistry meterRegistry;
+    private final int ordersPerBlock;
+    // Newest first; replaced wholesale on refresh
+    private volatile List<Segment> segments = List.of();
+
+    public OrderArchive(SegmentStore store,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${archive.orders-per-block:128}") int ordersPerBlock) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.meterRegistry = meterRegistry;
+        this.ordersPerBlock = ordersPerBlock;
+        meterRegistry.gauge("archive.segments", this, archive -> archive.segments.size());
+        meterRegistry.gauge("archive.orders", this, archive -> archive.segments.stream()
+                .mapToLong(segment -> segment.index().getOrderCount()).sum());
+        refresh();
+    }
+
+    /**
+     * Picks up segments written by other nodes. Already loaded indexes are kept.
+     */
+    @Scheduled(fixedDelayString = "${archive.refresh-interval-ms:300000}",
+            initialDelayString = "${archive.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        try {
+            Map<String, Segment> loaded = new HashMap<>();
+            segments.forEach(segment -> loaded.put(segment.name(), segment));
+            List<Segment> current = new ArrayList<>();
+            for (String indexName : store.list(INDEX_SUFFIX)) {
+                String name = indexName.substring(0, indexName.length() - INDEX_SUFFIX.length());
+                Segment segment = loaded.get(name);
+                if (segment == null) {
+                    segment = new Segment(name, SegmentIndex.fromBytes(store.read(indexName)));
+                }
+                current.add(segment);
+            }
+            // Names start with the zero-padded creation time
+            current.sort(Comparator.comparing(Segment::name).reversed());
+            segments = List.copyOf(current);
+        } catch (IOException e) {
+            log.warn("Failed to refresh order archive; keeping {} known segments", segments.size(), e);
+        }
+    }
+
+    public Optional<Order> findById(String orderId) {
+        for (Segment segment : segments) {
+            int block = segment.index().blockFor(orderId);
+            if (block < 0) {
+                continue;
+            }
+            for (Order order : readBlock(segment, block)) {
+                if (orderId.equals(order.getId())) {
+                    meterRegistry.counter("archive.reads", "result", "hit").increment();
+                    return Optional.of(order);
+                }
+            }
+        }
+        meterRegistry.counter("archive.reads", "result", "miss").increment();
+        return Optional.empty();
+    }
+
+    public List<Order> findByUserId(String userId) {
+        Map<String, Order> orders = new LinkedHashMap<>();
+        for (Segment segment : segments) {
+            for (int block : segment.index().blocksFor(userId)) {
+                for (Order order : readBlock(segment, block)) {
+                    if (userId.equals(order.getUserId())) {
+                        orders.putIfAbsent(order.getId(), order);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    public boolean isDurable() {
+        return store.isDurable();
+    }
+
+    /**
+     * Writes {@code orders} as a new segment and makes it readable. Returns the segment name.
+     */
+    public synchronized String write(List<Order> orders) throws IOException {
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(Order::getId));
+        String name = String.format("orders-%020d-%s", System.currentTimeMillis(),
+                UUID.randomUUID().toString().substring(0, 8));
+
+        SegmentIndex.Builder index = new SegmentIndex.Builder(sorted.size());
+        Path data = Files.createTempFile(name, SEGMENT_SUFFIX);
+        Path indexFile = Files.createTempFile(name, INDEX_SUFFIX);
+        try {
+            try (OutputStream out = Files.newOutputStream(data)) {
+                long offset = 0;
+                for (int start = 0; start < sorted.size(); start += ordersPerBlock) {
+                    List<Order> block = sorted.subList(start, Math.min(start + ordersPerBlock, sorted.size()));
+                    byte[] compressed = compress(block);
+                    index.addBlock(block.get(0).getId(), offset, compressed.length);
+                    block.forEach(order -> index.addOrder(order.getId(), order.getUserId(), order.getCreatedAt()));
+                    out.write(compressed);
+                    offset += compressed.length;
+                }
+            }
+            SegmentIndex built = index.build();
+            Files.write(indexFile, built.toBytes());
+            store.put(name + SEGMENT_SUFFIX, data);
+            // The index makes the segment visible, so it goes last
+            store.put(name + INDEX_SUFFIX, indexFile);
+
+            List<Segment> current = new ArrayList<>(segments);
+            current.add(0, new Segment(name, built));
+            segments = List.copyOf(current);
+            return name;
+        } finally {
+            Files.deleteIfExists(data);
+            Files.deleteIfExists(indexFile);
+        }
+    }
+
+    private byte[] compress(List<Order> block) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (Order order : block) {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Order> readBlock(Segment segment, int block) {
+        SegmentIndex index = segment.index();
+        List<Order> orders = new ArrayList<>();
+        try {
+            byte[] compressed = store.read(segment.name() + SEGMENT_SUFFIX, index.getOffset(block),
+                    index.getLength(block));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(compressed)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    orders.add(orderReader.readValue(line));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read block " + block + " of segment " + segment.name(), e);
+        }
+        meterRegistry.counter("archive.blocks.read").increment();
+        return orders;
+    }
+}
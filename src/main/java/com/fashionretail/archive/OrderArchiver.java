@@ -0,0 +1,122 @@
+package com.fashionretail.archive;
+
+import com.fashionretail.model.Order;
+import com.fashionretail.repository.OrderRepository;
+import com.fashionretail.repository.ParallelScanExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves orders older than {@code archive.min-age-days} from the Order table into archive
+ * segments, then deletes them from the table. Runs on a schedule where
+ * {@code archive.schedule.enabled} is set (one node per deployment), or once with
+ * {@code --archive=orders}.
+ */
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchive orderArchive;
+    private final ParallelScanExecutor scanExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${archive.schedule.enabled:false}")
+    private boolean scheduleEnabled;
+
+    @Value("${archive.min-age-days:365}")
+    private int minAgeDays;
+
+    @Value("${archive.max-orders-per-segment:50000}")
+    private int maxOrdersPerSegment;
+
+    @Value("${archive.scan-segments:4}")
+    private int scanSegments;
+
+    public OrderArchiver(OrderRepository orderRepository,
+                         OrderArchive orderArchive,
+                         ParallelScanExecutor scanExecutor,
+                         MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderArchive = orderArchive;
+        this.scanExecutor = scanExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void checkStore() {
+        if (scheduleEnabled && !orderArchive.isDurable()) {
+            log.warn("archive.schedule.enabled is set but the archive store is not durable and shared; "
+                    + "scheduled archival runs will be refused");
+        }
+    }
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!scheduleEnabled) {
+            return;
+        }
+        try {
+            archiveOrders();
+        } catch (Exception e) {
+            log.warn("Order archival failed", e);
+        }
+    }
+
+    /**
+     * Archives every order past the age cutoff, one segment of at most
+     * {@code archive.max-orders-per-segment} orders at a time. Returns how many were archived.
+     */
+    public synchronized long archiveOrders() throws Exception {
+        if (!orderArchive.isDurable()) {
+            // Deleting from the hot table would lose orders on the next redeploy
+            throw new IllegalStateException("Order archival needs a durable, shared archive store: "
+                    + "set archive.store=s3, or archive.local.shared=true for a directory mounted on every node");
+        }
+        long start = System.currentTimeMillis();
+        long cutoff = start - TimeUnit.DAYS.toMillis(minAgeDays);
+        long archived = 0;
+        long kept = 0;
+        while (true) {
+            List<Order> batch = collect(cutoff);
+            if (batch.isEmpty()) {
+                break;
+            }
+            String segment = orderArchive.write(batch);
+            int deleted = 0;
+            for (Order order : batch) {
+                if (orderRepository.deleteArchived(order)) {
+                    deleted++;
+                }
+            }
+            archived += batch.size();
+            kept += batch.size() - deleted;
+            meterRegistry.counter("archive.orders.archived").increment(batch.size());
+            log.info("Archived {} orders to segment {} ({} changed meanwhile and stay hot)",
+                    batch.size(), segment, batch.size() - deleted);
+            if (batch.size() < maxOrdersPerSegment || deleted == 0) {
+                break;
+            }
+        }
+        log.info("Order archival finished in {} ms: {} orders archived, {} left in the hot table",
+                System.currentTimeMillis() - start, archived, kept);
+        return archived;
+    }
+
+    private List<Order> collect(long cutoff) throws Exception {
+        List<Order> batch = new ArrayList<>();
+        // Stops the scan once the segment is full; the rest is picked up by the next segment
+        scanExecutor.scan(scanSegments,
+                (segment, total) -> orderRepository.scanSegmentCreatedBefore(segment, total, cutoff),
+                batch::add, maxOrdersPerSegment);
+        return batch;
+    }
+}
@@ -0,0 +1,71 @@
+package com.fashionretail.archive;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Keeps archive objects in an S3 bucket under a key prefix. Lookups use ranged GETs, so reading
+ * one archived order transfers a single compressed block.
+ */
+public class S3SegmentStore implements SegmentStore {
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final String prefix;
+
+    public S3SegmentStore(S3Client s3Client, String bucket, String prefix) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
+    @Override
+    public void put(String name, Path file) {
+        s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(prefix + name).build(),
+                RequestBody.fromFile(file));
+    }
+
+    @Override
+    public byte[] read(String name) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(prefix + name)
+                        .build())
+                .asByteArray();
+    }
+
+    @Override
+    public byte[] read(String name, long offset, int length) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(prefix + name)
+                        .range("bytes=" + offset + "-" + (offset + length - 1))
+                        .build())
+                .asByteArray();
+    }
+
+    @Override
+    public List<String> list(String suffix) {
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucket)
+                        .prefix(prefix)
+                        .build())
+                .contents().stream()
+                .map(S3Object::key)
+                .filter(key -> key.endsWith(suffix))
+                .map(key -> key.substring(prefix.length()))
+                .toList();
+    }
+}
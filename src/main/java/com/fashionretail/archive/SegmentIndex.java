@@ -0,0 +1,197 @@
+package com.fashionretail.archive;
+
+import com.fashionretail.util.ScalableBloomFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sparse index of one archive segment. Orders in a segment are sorted by id and grouped into
+ * compressed blocks; the index keeps only the first id and byte range of each block, the
+ * blocks each user has orders in, and a Bloom filter of ids so that lookups for orders that
+ * are not in the segment never read it.
+ */
+class SegmentIndex {
+
+    private static final int MAGIC = 0x4F415258;
+    private static final int VERSION = 1;
+
+    private final int orderCount;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final String[] firstIds;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final Map<String, int[]> userBlocks;
+    private final ScalableBloomFilter ids;
+
+    private SegmentIndex(int orderCount, long minCreatedAt, long maxCreatedAt, String[] firstIds,
+                         long[] offsets, int[] lengths, Map<String, int[]> userBlocks, ScalableBloomFilter ids) {
+        this.orderCount = orderCount;
+        this.minCreatedAt = minCreatedAt;
+        this.maxCreatedAt = maxCreatedAt;
+        this.firstIds = firstIds;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.userBlocks = userBlocks;
+        this.ids = ids;
+    }
+
+    int getOrderCount() {
+        return orderCount;
+    }
+
+    long getMinCreatedAt() {
+        return minCreatedAt;
+    }
+
+    long getMaxCreatedAt() {
+        return maxCreatedAt;
+    }
+
+    long getOffset(int block) {
+        return offsets[block];
+    }
+
+    int getLength(int block) {
+        return lengths[block];
+    }
+
+    /**
+     * The block that would hold {@code orderId}, or -1 if the segment certainly does not.
+     */
+    int blockFor(String orderId) {
+        if (!ids.mightContain(orderId)) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(firstIds, orderId);
+        return position >= 0 ? position : -position - 2;
+    }
+
+    int[] blocksFor(String userId) {
+        return userBlocks.getOrDefault(userId, new int[0]);
+    }
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(orderCount);
+            out.writeLong(minCreatedAt);
+            out.writeLong(maxCreatedAt);
+            out.writeInt(firstIds.length);
+            for (int block = 0; block < firstIds.length; block++) {
+                out.writeUTF(firstIds[block]);
+                out.writeLong(offsets[block]);
+                out.writeInt(lengths[block]);
+            }
+            out.writeInt(userBlocks.size());
+            for (Map.Entry<String, int[]> entry : userBlocks.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (int block : entry.getValue()) {
+                    out.writeInt(block);
+                }
+            }
+            ids.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    static SegmentIndex fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported segment index format");
+            }
+            int orderCount = in.readInt();
+            long minCreatedAt = in.readLong();
+            long maxCreatedAt = in.readLong();
+            int blockCount = in.readInt();
+            String[] firstIds = new String[blockCount];
+            long[] offsets = new long[blockCount];
+            int[] lengths = new int[blockCount];
+            for (int block = 0; block < blockCount; block++) {
+                firstIds[block] = in.readUTF();
+                offsets[block] = in.readLong();
+                lengths[block] = in.readInt();
+            }
+            int userCount = in.readInt();
+            Map<String, int[]> userBlocks = new HashMap<>(userCount * 2);
+            for (int i = 0; i < userCount; i++) {
+                String userId = in.readUTF();
+                int[] blocks = new int[in.readInt()];
+                for (int b = 0; b < blocks.length; b++) {
+                    blocks[b] = in.readInt();
+                }
+                userBlocks.put(userId, blocks);
+            }
+            return new SegmentIndex(orderCount, minCreatedAt, maxCreatedAt, firstIds, offsets, lengths,
+                    userBlocks, ScalableBloomFilter.readFrom(in));
+        }
+    }
+
+    /**
+     * Collects block boundaries while a segment is written. Blocks must be added in id order.
+     */
+    static class Builder {
+
+        private final List<String> firstIds = new ArrayList<>();
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+        private final Map<String, Set<Integer>> userBlocks = new HashMap<>();
+        private final ScalableBloomFilter ids;
+        private int orderCount;
+        private long minCreatedAt = Long.MAX_VALUE;
+        private long maxCreatedAt = Long.MIN_VALUE;
+
+        Builder(int expectedOrders) {
+            this.ids = new ScalableBloomFilter(expectedOrders, 0.01);
+        }
+
+        void addBlock(String firstId, long offset, int length) {
+            firstIds.add(firstId);
+            offsets.add(offset);
+            lengths.add(length);
+        }
+
+        /**
+         * Records an order of the block most recently added.
+         */
+        void addOrder(String orderId, String userId, Long createdAt) {
+            int block = firstIds.size() - 1;
+            ids.put(orderId);
+            if (userId != null) {
+                userBlocks.computeIfAbsent(userId, key -> new LinkedHashSet<>()).add(block);
+            }
+            if (createdAt != null) {
+                minCreatedAt = Math.min(minCreatedAt, createdAt);
+                maxCreatedAt = Math.max(maxCreatedAt, createdAt);
+            }
+            orderCount++;
+        }
+
+        SegmentIndex build() {
+            Map<String, int[]> users = new HashMap<>(userBlocks.size() * 2);
+            userBlocks.forEach((userId, blocks) ->
+                    users.put(userId, blocks.stream().mapToInt(Integer::intValue).toArray()));
+            return new SegmentIndex(orderCount, minCreatedAt, maxCreatedAt,
+                    firstIds.toArray(new String[0]),
+                    offsets.stream().mapToLong(Long::longValue).toArray(),
+                    lengths.stream().mapToInt(Integer::intValue).toArray(),
+                    users, ids);
+        }
+    }
+}
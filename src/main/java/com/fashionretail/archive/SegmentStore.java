@@ -0,0 +1,32 @@
+package com.fashionretail.archive;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Storage for immutable archive objects. Objects are written once, whole, and never modified;
+ * readers fetch byte ranges so that a lookup only transfers the block it needs.
+ */
+public interface SegmentStore {
+
+    /**
+     * Stores {@code file} under {@code name}. The object becomes visible atomically.
+     */
+    void put(String name, Path file) throws IOException;
+
+    byte[] read(String name) throws IOException;
+
+    byte[] read(String name, long offset, int length) throws IOException;
+
+    /**
+     * Names of all stored objects ending in {@code suffix}.
+     */
+    List<String> list(String suffix) throws IOException;
+
+    /**
+     * Whether objects survive a redeploy and are readable by every node. The archiver only
+     * deletes orders from the hot table once they are in such a store.
+     */
+    boolean isDurable();
+}
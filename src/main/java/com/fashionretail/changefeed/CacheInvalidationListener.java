@@ -0,0 +1,20 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import com.fashionretail.service.ProductCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener implements ChangeListener {
+
+    private final ProductCache productCache;
+
+    @Override
+    public void onChange(ChangeRecord record) {
+        if (record.getEntityType() == ChangeRecord.EntityType.PRODUCT) {
+            productCache.invalidate(record.getEntityId());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fans a change out to every {@link ChangeListener}. Listeners are resolved lazily because
+ * some of them depend on the repositories that publish changes.
+ */
+@Slf4j
+@Component
+public class ChangeDispatcher {
+
+    private final ObjectProvider<ChangeListener> listeners;
+
+    public ChangeDispatcher(ObjectProvider<ChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    public void dispatch(ChangeRecord record) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onChange(record);
+            } catch (RuntimeException e) {
+                log.warn("Change listener {} failed for {} {}", listener.getClass().getSimpleName(),
+                        record.getEntityType(), record.getEntityId(), e);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every repository write. Local listeners are notified immediately; the record is
+ * buffered and appended to the shared {@link ChangeLog} in batches so that other nodes can
+ * pick it up without slowing down the write path.
+ */
+@Slf4j
+@Component
+public class ChangeFeedPublisher {
+
+    private final ChangeLog changeLog;
+    private final ChangeDispatcher dispatcher;
+    private final String nodeId;
+    private final int batchSize;
+    private final long retentionSeconds;
+    private final BlockingQueue<ChangeRecord> pending;
+    private final AtomicLong counter = new AtomicLong();
+
+    private final Counter appended;
+    private final Counter dropped;
+
+    public ChangeFeedPublisher(ChangeLog changeLog,
+                               ChangeDispatcher dispatcher,
+                               @Value("${changefeed.node-id:}") String nodeId,
+                               @Value("${changefeed.buffer-size:10000}") int bufferSize,
+                               @Value("${changefeed.batch-size:100}") int batchSize,
+                               @Value("${changefeed.retention-hours:24}") long retentionHours,
+                               MeterRegistry meterRegistry) {
+        this.changeLog = changeLog;
+        this.dispatcher = dispatcher;
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : nodeId.replace('-', '_');
+        this.batchSize = batchSize;
+        this.retentionSeconds = TimeUnit.HOURS.toSeconds(retentionHours);
+        this.pending = new LinkedBlockingQueue<>(bufferSize);
+        this.appended = meterRegistry.counter("changefeed.appended");
+        this.dropped = meterRegistry.counter("changefeed.dropped");
+        meterRegistry.gauge("changefeed.pending", pending, BlockingQueue::size);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void publish(ChangeRecord.EntityType entityType, String entityId, ChangeRecord.Operation operation) {
+        publish(entityType, entityId, operation, null, null);
+    }
+
+    /**
+     * Publishes a change with its owner and {@code detail}, state that listeners would otherwise
+     * have to read back, costing a read per change on every node, and could then find already
+     * overwritten by a later change.
+     */
+    public void publish(ChangeRecord.EntityType entityType, String entityId, ChangeRecord.Operation operation,
+                        String ownerId, String detail) {
+        long now = System.currentTimeMillis();
+        ChangeRecord record = new ChangeRecord(
+                TimeUnit.MILLISECONDS.toMinutes(now),
+                ChangeSequence.of(now, nodeId, counter.incrementAndGet()),
+                entityType,
+                entityId,
+                ownerId,
+                operation,
+                detail,
+                nodeId,
+                now,
+                TimeUnit.MILLISECONDS.toSeconds(now) + retentionSeconds);
+
+        dispatcher.dispatch(record);
+        if (!pending.offer(record)) {
+            // Remote nodes fall back to cache TTLs for this change
+            dropped.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${changefeed.flush-interval-ms:200}")
+    public void flush() {
+        List<ChangeRecord> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                changeLog.append(batch);
+                appended.increment(batch.size());
+            } catch (RuntimeException e) {
+                dropped.increment(batch.size());
+                log.warn("Failed to append {} change records", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
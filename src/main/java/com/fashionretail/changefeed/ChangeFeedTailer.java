@@ -0,0 +1,93 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the shared change log and applies changes made by other nodes to local caches.
+ * Each poll re-reads a short overlap window so records from nodes with slightly skewed
+ * clocks are not skipped; already applied sequences are ignored.
+ * <p>
+ * Tailing starts at startup time and the position is kept in memory only: the caches it
+ * keeps fresh start empty, so there is nothing older to invalidate after a restart.
+ */
+@Slf4j
+@Component
+public class ChangeFeedTailer {
+
+    private static final int SEEN_CAPACITY = 10_000;
+
+    private final ChangeLog changeLog;
+    private final ChangeDispatcher dispatcher;
+    private final String nodeId;
+    private final int batchSize;
+    private final long overlapMillis;
+    private final Timer propagationLag;
+    private final Set<String> seen = new LinkedHashSet<>();
+
+    private String checkpoint;
+
+    public ChangeFeedTailer(ChangeLog changeLog,
+                            ChangeDispatcher dispatcher,
+                            ChangeFeedPublisher publisher,
+                            @Value("${changefeed.batch-size:100}") int batchSize,
+                            @Value("${changefeed.overlap-ms:5000}") long overlapMillis,
+                            MeterRegistry meterRegistry) {
+        this.changeLog = changeLog;
+        this.dispatcher = dispatcher;
+        this.nodeId = publisher.getNodeId();
+        this.batchSize = batchSize;
+        this.overlapMillis = overlapMillis;
+        this.propagationLag = Timer.builder("changefeed.propagation.lag")
+                .description("Time between a change being written on one node and applied on another")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.checkpoint = ChangeSequence.startingAt(System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${changefeed.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        try {
+            String from = ChangeSequence.startingAt(
+                    Math.max(0, ChangeSequence.timestampOf(checkpoint) - overlapMillis));
+            List<ChangeRecord> records;
+            do {
+                records = changeLog.readAfter(from, batchSize);
+                for (ChangeRecord record : records) {
+                    apply(record);
+                    from = record.getSequence();
+                }
+            } while (records.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Change feed poll failed, will retry from {}", checkpoint, e);
+        }
+    }
+
+    private void apply(ChangeRecord record) {
+        if (!seen.add(record.getSequence())) {
+            return;
+        }
+        if (seen.size() > SEEN_CAPACITY) {
+            seen.remove(seen.iterator().next());
+        }
+        if (record.getSequence().compareTo(checkpoint) > 0) {
+            checkpoint = record.getSequence();
+        }
+        if (nodeId.equals(record.getNodeId())) {
+            return;
+        }
+        dispatcher.dispatch(record);
+        propagationLag.record(Math.max(0, System.currentTimeMillis() - record.getTimestamp()),
+                TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,8 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+
+public interface ChangeListener {
+
+    void onChange(ChangeRecord record);
+}
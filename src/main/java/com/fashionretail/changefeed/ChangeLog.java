@@ -0,0 +1,19 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+
+import java.util.List;
+
+/**
+ * Append-only log of entity changes shared by every node in the deployment.
+ */
+public interface ChangeLog {
+
+    void append(List<ChangeRecord> records);
+
+    /**
+     * Returns up to {@code limit} records whose sequence sorts after {@code checkpoint},
+     * in sequence order.
+     */
+    List<ChangeRecord> readAfter(String checkpoint, int limit);
+}
@@ -0,0 +1,23 @@
+package com.fashionretail.changefeed;
+
+/**
+ * Sequences are {@code <13-digit epoch millis>-<node id>-<counter>} so that plain string
+ * comparison orders them by write time across nodes.
+ */
+final class ChangeSequence {
+
+    private ChangeSequence() {
+    }
+
+    static String of(long timestamp, String nodeId, long counter) {
+        return String.format("%013d-%s-%09d", timestamp, nodeId, counter % 1_000_000_000L);
+    }
+
+    static String startingAt(long timestamp) {
+        return String.format("%013d", timestamp);
+    }
+
+    static long timestampOf(String sequence) {
+        return Long.parseLong(sequence.substring(0, 13));
+    }
+}
@@ -0,0 +1,65 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class DynamoDbChangeLog implements ChangeLog {
+
+    private static final int BATCH_SIZE = 25;
+    // Never walk back further than this many buckets, e.g. after a long outage
+    private static final long MAX_BUCKETS_BEHIND = 60;
+
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<ChangeRecord> changeLogTable;
+
+    public DynamoDbChangeLog(DynamoDbEnhancedClient enhancedClient, DynamoDbTable<ChangeRecord> changeLogTable) {
+        this.enhancedClient = enhancedClient;
+        this.changeLogTable = changeLogTable;
+    }
+
+    @Override
+    public void append(List<ChangeRecord> records) {
+        for (int from = 0; from < records.size(); from += BATCH_SIZE) {
+            List<ChangeRecord> chunk = records.subList(from, Math.min(from + BATCH_SIZE, records.size()));
+            WriteBatch.Builder<ChangeRecord> batch = WriteBatch.builder(ChangeRecord.class)
+                    .mappedTableResource(changeLogTable);
+            chunk.forEach(batch::addPutItem);
+
+            BatchWriteResult result = enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .addWriteBatch(batch.build())
+                    .build());
+            // Retry unprocessed items individually; the feed is small and best effort
+            result.unprocessedPutItemsForTable(changeLogTable).forEach(changeLogTable::putItem);
+        }
+    }
+
+    @Override
+    public List<ChangeRecord> readAfter(String checkpoint, int limit) {
+        long currentBucket = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+        long checkpointBucket = TimeUnit.MILLISECONDS.toMinutes(ChangeSequence.timestampOf(checkpoint));
+        long bucket = Math.max(checkpointBucket, currentBucket - MAX_BUCKETS_BEHIND);
+
+        List<ChangeRecord> records = new ArrayList<>();
+        for (; bucket <= currentBucket && records.size() < limit; bucket++) {
+            QueryConditional condition = bucket == checkpointBucket
+                    ? QueryConditional.sortGreaterThan(Key.builder().partitionValue(bucket).sortValue(checkpoint).build())
+                    : QueryConditional.keyEqualTo(Key.builder().partitionValue(bucket).build());
+            changeLogTable.query(condition).items().stream()
+                    .limit(limit - records.size())
+                    .forEach(records::add);
+        }
+        return records;
+    }
+}
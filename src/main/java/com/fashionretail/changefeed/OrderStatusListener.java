@@ -0,0 +1,24 @@
+package com.fashionretail.changefeed;
+
+import com.fashionretail.model.ChangeRecord;
+import com.fashionretail.model.Order;
+import com.fashionretail.service.OrderStatusBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class OrderStatusListener implements ChangeListener {
+
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
+
+    @Override
+    public void onChange(ChangeRecord record) {
+        if (record.getEntityType() == ChangeRecord.EntityType.ORDER
+                && record.getOperation() == ChangeRecord.Operation.SAVE) {
+            Order.OrderStatus status = record.getDetail() != null ? Order.OrderStatus.valueOf(record.getDetail()) : null;
+            orderStatusBroadcaster.onOrderSaved(record.getEntityId(), record.getOwnerId(), status,
+                    record.getTimestamp());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.fashionretail.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link AdmissionController} in the security chain, after the request's credentials
+ * are resolved (so buckets can be per user) but before authorization and the handler, so
+ * that rejected requests cost next to nothing. Not a bean on purpose: as a bean it would also be
+ * registered as a plain servlet filter and run twice.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionController admissionController;
+
+    public AdmissionControlFilter(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdmissionController.Admission admission = admissionController.admit(request);
+        if (!admission.admitted()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(admission.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Long-lived async responses (exports, event streams) say nothing about capacity
+            long rtt = request.isAsyncStarted() ? -1 : System.nanoTime() - start;
+            admissionController.complete(admission, rtt);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.fashionretail.config;
+
+import com.fashionretail.util.GradientLimiter;
+import com.fashionretail.util.StripedTokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether an API request may run. Three checks are applied in order: a per-client
+ * token bucket, a concurrency cap per endpoint class, and a shared adaptive limit of which
+ * low-priority traffic (search, browsing) may only use a fraction, so it is shed well before
+ * checkout is affected.
+ */
+@Component
+public class AdmissionController {
+
+    public enum Priority {
+        CRITICAL(1.0, 1),
+        NORMAL(0.9, 1),
+        BROWSE(0.75, 1),
+        SEARCH(0.5, 5);
+
+        private final double share;
+        private final double tokenCost;
+
+        Priority(double share, double tokenCost) {
+            this.share = share;
+            this.tokenCost = tokenCost;
+        }
+    }
+
+    private final StripedTokenBuckets clientBuckets;
+    private final GradientLimiter limiter;
+    private final Map<Priority, Semaphore> endpointLimits = new EnumMap<>(Priority.class);
+    private final boolean trustForwardedFor;
+    private final int trustedProxyHops;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionController(@Value("${admission.client.rate-per-second:20}") double ratePerSecond,
+                               @Value("${admission.client.burst:40}") double burst,
+                               @Value("${admission.limit.initial:100}") int initialLimit,
+                               @Value("${admission.limit.min:20}") int minLimit,
+                               @Value("${admission.limit.max:400}") int maxLimit,
+                               @Value("${admission.concurrency.critical:400}") int criticalConcurrency,
+                               @Value("${admission.concurrency.normal:200}") int normalConcurrency,
+                               @Value("${admission.concurrency.browse:200}") int browseConcurrency,
+                               @Value("${admission.concurrency.search:16}") int searchConcurrency,
+                               @Value("${admission.trust-forwarded-for:false}") boolean trustForwardedFor,
+                               @Value("${admission.trusted-proxy-hops:1}") int trustedProxyHops,
+                               MeterRegistry meterRegistry) {
+        this.clientBuckets = new StripedTokenBuckets(64, 2048, ratePerSecond, burst);
+        this.limiter = new GradientLimiter(initialLimit, minLimit, maxLimit, 50);
+        this.endpointLimits.put(Priority.CRITICAL, new Semaphore(criticalConcurrency));
+        this.endpointLimits.put(Priority.NORMAL, new Semaphore(normalConcurrency));
+        this.endpointLimits.put(Priority.BROWSE, new Semaphore(browseConcurrency));
+        this.endpointLimits.put(Priority.SEARCH, new Semaphore(searchConcurrency));
+        this.trustForwardedFor = trustForwardedFor;
+        this.trustedProxyHops = Math.max(1, trustedProxyHops);
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("admission.limit", limiter, GradientLimiter::getLimit);
+        meterRegistry.gauge("admission.inflight", limiter, GradientLimiter::getInFlight);
+        meterRegistry.gauge("admission.clients", clientBuckets, StripedTokenBuckets::size);
+        endpointLimits.forEach((priority, semaphore) -> meterRegistry.gauge("admission.endpoint.available",
+                Tags.of("priority", priority.name()), semaphore,
+                Semaphore::availablePermits));
+    }
+
+    public Admission admit(HttpServletRequest request) {
+        Priority priority = classify(request);
+        if (priority == null) {
+            return Admission.BYPASS;
+        }
+
+        long waitNanos = clientBuckets.tryConsume(clientKey(request), priority.tokenCost);
+        if (waitNanos > 0) {
+            return reject(priority, "rate", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+        }
+
+        Semaphore endpointLimit = endpointLimits.get(priority);
+        if (!endpointLimit.tryAcquire()) {
+            return reject(priority, "concurrency", 1);
+        }
+        if (!limiter.tryAcquire(priority.share)) {
+            endpointLimit.release();
+            return reject(priority, "overload", 1);
+        }
+        return new Admission(true, 0, () -> {
+            limiter.release();
+            endpointLimit.release();
+        }, !request.getRequestURI().startsWith("/api/admin"));
+    }
+
+    public void complete(Admission admission, long rttNanos) {
+        if (admission.release() != null) {
+            admission.release().run();
+        }
+        if (admission.sampled() && rttNanos >= 0) {
+            limiter.onSample(rttNanos);
+        }
+    }
+
+    private Admission reject(Priority priority, String reason, long retryAfterSeconds) {
+        meterRegistry.counter("admission.rejected", "priority", priority.name(), "reason", reason).increment();
+        return new Admission(false, retryAfterSeconds, null, false);
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (!path.startsWith("/api/") || isLocalWarmup(request)) {
+            return null;
+        }
+        // Image derivatives behave like static assets: a listing page fetches dozens at once,
+        // and ImageService bounds the work with its own pool
+        if (path.startsWith("/api/images/")) {
+            return null;
+        }
+        // Long-lived push connections; OrderStatusBroadcaster caps them per node and per user
+        if (path.equals("/api/orders/stream")) {
+            return null;
+        }
+        if (path.startsWith("/api/orders") || path.startsWith("/api/cart") || path.startsWith("/api/auth")) {
+            return Priority.CRITICAL;
+        }
+        if (path.startsWith("/api/products/search")) {
+            return Priority.SEARCH;
+        }
+        if (path.startsWith("/api/products") && "GET".equals(request.getMethod())) {
+            return Priority.BROWSE;
+        }
+        return Priority.NORMAL;
+    }
+
+    private static boolean isLocalWarmup(HttpServletRequest request) {
+        String token = request.getHeader(StartupWarmup.TOKEN_HEADER);
+        return token != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                StartupWarmup.TOKEN.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Keyed by the authenticated user if there is one, so a user gets one bucket whatever
+     * address they come from, and by client address otherwise. X-Forwarded-For is only read
+     * with {@code trust-forwarded-for}, i.e. behind our own proxies; then only the entries they
+     * appended can be trusted: the client address is the {@code trusted-proxy-hops}-th entry
+     * from the right. Anything further left was sent by the client and may be made up.
+     */
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                String client = hops[Math.max(0, hops.length - trustedProxyHops)].trim();
+                if (!client.isEmpty()) {
+                    return "ip:" + client;
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    public record Admission(boolean admitted, long retryAfterSeconds, Runnable release, boolean sampled) {
+        static final Admission BYPASS = new Admission(true, 0, null, false);
+    }
+}
@@ -0,0 +1,58 @@
+package com.fashionretail.config;
+
+import com.fashionretail.archive.LocalSegmentStore;
+import com.fashionretail.archive.S3SegmentStore;
+import com.fashionretail.archive.SegmentStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+@Configuration
+public class ArchiveConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "archive.store", havingValue = "local", matchIfMissing = true)
+    public SegmentStore localSegmentStore(@Value("${archive.local.directory:./data/archive}") String directory,
+                                          @Value("${archive.local.shared:false}") boolean shared) {
+        return new LocalSegmentStore(Path.of(directory), shared);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "archive.store", havingValue = "s3")
+    public SegmentStore s3SegmentStore(@Value("${archive.s3.bucket}") String bucket,
+                                       @Value("${archive.s3.prefix:orders/}") String prefix,
+                                       @Value("${archive.s3.endpoint:}") String endpoint,
+                                       @Value("${aws.region:ap-south-1}") String awsRegion,
+                                       @Value("${aws.accessKeyId:}") String accessKeyId,
+                                       @Value("${aws.secretKey:}") String secretKey) {
+        // Explicit, so the S3 client neither picks between HTTP implementations on the
+        // classpath nor shares the DynamoDB connection pool
+        var builder = S3Client.builder()
+                .region(Region.of(awsRegion))
+                .httpClientBuilder(ApacheHttpClient.builder());
+
+        if (!accessKeyId.isEmpty() && !secretKey.isEmpty()) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(accessKeyId, secretKey)));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+
+        // S3-compatible local stand-ins (MinIO, LocalStack) need path-style addressing
+        if (!endpoint.isEmpty()) {
+            builder.endpointOverride(URI.create(endpoint)).forcePathStyle(true);
+        }
+
+        return new S3SegmentStore(builder.build(), bucket, prefix);
+    }
+}
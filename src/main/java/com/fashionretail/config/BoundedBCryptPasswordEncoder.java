@@ -0,0 +1,139 @@
+package com.fashionretail.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt on its own small thread pool, so a login or registration burst cannot occupy every
+ * request thread with CPU-bound hashing. The queue is bounded and callers give up after
+ * {@code maxWaitMillis}; both cases raise {@link PasswordHashingBusyException}.
+ * <p>
+ * The cost is calibrated at startup: the largest cost within [minCost, maxCost] whose hash
+ * takes at most {@code targetMillis} on this host. Stored hashes with a lower cost report
+ * {@link #upgradeEncoding}, so Spring Security re-hashes them on the next successful login.
+ */
+@Slf4j
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final int CALIBRATION_COST = 8;
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+    private final MeterRegistry meterRegistry;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final int cost;
+
+    public BoundedBCryptPasswordEncoder(int workers, int queueCapacity, long maxWaitMillis,
+                                        long targetMillis, int minCost, int maxCost,
+                                        MeterRegistry meterRegistry) {
+        this.cost = calibrate(targetMillis, minCost, maxCost);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.maxWaitMillis = maxWaitMillis;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = meterRegistry.timer("security.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("security.password.hash", "operation", "matches");
+        this.waitTimer = meterRegistry.timer("security.password.queue.wait");
+        meterRegistry.gauge("security.password.queue", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("security.password.active", executor, ThreadPoolExecutor::getActiveCount);
+        meterRegistry.gauge("security.password.cost", this, encoder -> encoder.cost);
+        log.info("Password hashing: BCrypt cost {} on {} workers", cost, workers);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("security.password.rejected", "reason", "queue-full").increment();
+            throw new PasswordHashingBusyException("Too many concurrent password checks");
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            meterRegistry.counter("security.password.rejected", "reason", "timeout").increment();
+            throw new PasswordHashingBusyException("Password check timed out in queue");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Times a cheap cost and extrapolates, since each cost step doubles the work.
+     */
+    private static int calibrate(long targetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_COST);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double probeMillis = Math.max(best / 1_000_000.0, 0.01);
+        int calibrated = CALIBRATION_COST + (int) Math.floor(Math.log(targetMillis / probeMillis) / Math.log(2));
+        int cost = Math.max(minCost, Math.min(maxCost, calibrated));
+        log.info("BCrypt cost {} takes {} ms here; target {} ms gives cost {}", CALIBRATION_COST,
+                String.format("%.1f", probeMillis), targetMillis, cost);
+        return cost;
+    }
+}
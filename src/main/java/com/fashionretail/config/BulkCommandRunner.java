@@ -0,0 +1,104 @@
+package com.fashionretail.config;
+
+import com.fashionretail.archive.OrderArchiver;
+import com.fashionretail.dto.ImportJobStatus;
+import com.fashionretail.service.ExportService;
+import com.fashionretail.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command-line mode for bulk jobs. When started with e.g.
+ * {@code --export=orders --export.file=orders.csv --export.format=csv} or
+ * {@code --import=products --import.file=catalog.csv --import.job-id=spring-refresh} or
+ * {@code --archive=orders} the job runs once and the application exits; without these arguments the application starts normally.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class BulkCommandRunner implements ApplicationRunner {
+
+    private final ExportService exportService;
+    private final ProductImportService productImportService;
+    private final OrderArchiver orderArchiver;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!args.containsOption("export") && !args.containsOption("import") && !args.containsOption("archive")) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            if (args.containsOption("import")) {
+                exitCode = runImport(args);
+            } else if (args.containsOption("archive")) {
+                runArchive(args);
+            } else {
+                runExport(args);
+            }
+        } catch (Exception e) {
+            log.error("Bulk command failed", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+
+    private void runExport(ApplicationArguments args) throws Exception {
+        String entity = single(args, "export", null);
+        ExportService.Format format = ExportService.Format.valueOf(
+                single(args, "export.format", "ndjson").toUpperCase());
+        Path file = Path.of(single(args, "export.file", entity + "." + format.getExtension()));
+        long rows = exportService.exportToFile(entity, format, file);
+        log.info("Wrote {} {} to {}", rows, entity, file.toAbsolutePath());
+    }
+
+    private int runImport(ApplicationArguments args) throws Exception {
+        String entity = single(args, "import", null);
+        if (!"products".equals(entity)) {
+            throw new IllegalArgumentException("Unknown import entity: " + entity);
+        }
+        Path file = Path.of(single(args, "import.file", null));
+        ExportService.Format format = ExportService.Format.valueOf(single(args, "import.format",
+                file.toString().toLowerCase().endsWith(".csv") ? "csv" : "ndjson").toUpperCase());
+        String jobId = single(args, "import.job-id", file.getFileName().toString());
+        try (InputStream in = Files.newInputStream(file)) {
+            ImportJobStatus status = productImportService.importProducts(in, format, jobId);
+            log.info("Import {}: {}", jobId, status);
+            return status.getRowsFailed() == 0 ? 0 : 2;
+        }
+    }
+
+    private void runArchive(ApplicationArguments args) throws Exception {
+        String entity = single(args, "archive", null);
+        if (!"orders".equals(entity)) {
+            throw new IllegalArgumentException("Unknown archive entity: " + entity);
+        }
+        log.info("Archived {} orders", orderArchiver.archiveOrders());
+    }
+
+    private static String single(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        if (values == null || values.isEmpty() || values.get(0).isBlank()) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("Missing --" + name);
+            }
+            return defaultValue;
+        }
+        return values.get(0);
+    }
+}
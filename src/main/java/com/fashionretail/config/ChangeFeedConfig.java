@@ -0,0 +1,33 @@
+package com.fashionretail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.changefeed.ChangeLog;
+import com.fashionretail.changefeed.DynamoDbChangeLog;
+import com.fashionretail.changefeed.FileChangeLog;
+import com.fashionretail.model.ChangeRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+import java.nio.file.Path;
+
+@Configuration
+public class ChangeFeedConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "changefeed.store", havingValue = "dynamodb", matchIfMissing = true)
+    public ChangeLog dynamoDbChangeLog(DynamoDbEnhancedClient enhancedClient,
+                                       DynamoDbTable<ChangeRecord> changeLogTable) {
+        return new DynamoDbChangeLog(enhancedClient, changeLogTable);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "changefeed.store", havingValue = "file")
+    public ChangeLog fileChangeLog(@Value("${changefeed.file.path:./data/changefeed.ndjson}") String path,
+                                   ObjectMapper objectMapper) {
+        return new FileChangeLog(Path.of(path), objectMapper);
+    }
+}
@@ -8,9 +8,11 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
@@ -32,9 +34,12 @@ public class DynamoDBConfig {
     private String secretKey;
 
     @Bean
-    public DynamoDbClient dynamoDbClient() {
+    public DynamoDbClient dynamoDbClient(SdkHttpClient dynamoDbHttpClient,
+                                         ClientOverrideConfiguration dynamoDbOverrideConfiguration) {
         var builder = DynamoDbClient.builder()
-                .region(Region.of(awsRegion));
+                .region(Region.of(awsRegion))
+                .httpClient(dynamoDbHttpClient)
+                .overrideConfiguration(dynamoDbOverrideConfiguration);
 
         // Use custom credentials if provided, otherwise use default provider chain
         if (accessKeyId != null && !accessKeyId.isEmpty() && secretKey != null && !secretKey.isEmpty()) {
@@ -78,4 +83,34 @@ public class DynamoDBConfig {
     public DynamoDbTable<CartItem> cartItemTable(DynamoDbEnhancedClient enhancedClient) {
         return enhancedClient.table("CartItem", TableSchema.fromBean(CartItem.class));
     }
+
+    @Bean
+    public DynamoDbTable<ChangeRecord> changeLogTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("ChangeLog", TableSchema.fromBean(ChangeRecord.class));
+    }
+
+    @Bean
+    public DynamoDbTable<SalesSnapshot> salesSnapshotTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("SalesSnapshot", TableSchema.fromBean(SalesSnapshot.class));
+    }
+
+    @Bean
+    public DynamoDbTable<UserEmail> userEmailTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("UserEmail", TableSchema.fromBean(UserEmail.class));
+    }
+
+    @Bean
+    public DynamoDbTable<IdempotencyRecord> idempotencyTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("Idempotency", TableSchema.fromBean(IdempotencyRecord.class));
+    }
+
+    @Bean
+    public DynamoDbTable<OutboxEvent> outboxTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("Outbox", TableSchema.fromBean(OutboxEvent.class));
+    }
+
+    @Bean
+    public DynamoDbTable<OutboxEvent> outboxDeadLetterTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table("OutboxDeadLetter", TableSchema.fromBean(OutboxEvent.class));
+    }
 }
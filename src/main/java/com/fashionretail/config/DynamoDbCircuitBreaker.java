@@ -0,0 +1,144 @@
+package com.fashionretail.config;
+
+import com.fashionretail.util.RollingCounters;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker shared by every repository, since they all use the one DynamoDB client.
+ * When 5xx responses and client-side failures (timeouts, connection errors) exceed
+ * {@code failureRateThreshold} of the calls in the rolling window, calls fail fast for
+ * {@code openMillis} instead of piling retries onto a struggling service. Then a single probe
+ * call is let through; its outcome closes or re-opens the circuit. Business failures such as
+ * conditional-check failures do not count.
+ * <p>
+ * Throttling is left out entirely. It is a limit on one table, often reached on purpose by
+ * bulk jobs such as the product import, and opening this client-wide breaker for it would fail
+ * checkout and login on unrelated tables. The retry token bucket already caps retry storms.
+ */
+public class DynamoDbCircuitBreaker implements ExecutionInterceptor {
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private static final ExecutionAttribute<Boolean> PROBE = new ExecutionAttribute<>("CircuitBreakerProbe");
+    private static final ExecutionAttribute<Boolean> REJECTED = new ExecutionAttribute<>("CircuitBreakerRejected");
+
+    private final double failureRateThreshold;
+    private final long minimumCalls;
+    private final long openMillis;
+    private final int windowSeconds;
+    private volatile RollingCounters window;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    public DynamoDbCircuitBreaker(double failureRateThreshold, long minimumCalls, int windowSeconds,
+                                  long openMillis, MeterRegistry meterRegistry) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = minimumCalls;
+        this.openMillis = openMillis;
+        this.windowSeconds = windowSeconds;
+        this.window = new RollingCounters(1000, windowSeconds);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("dynamodb.circuit.state", state);
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        if (state.get() == CLOSED) {
+            return;
+        }
+        if (state.get() == OPEN && System.currentTimeMillis() - openedAt.get() >= openMillis) {
+            state.compareAndSet(OPEN, HALF_OPEN);
+        }
+        if (state.get() == HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+            attributes.putAttribute(PROBE, true);
+            return;
+        }
+        attributes.putAttribute(REJECTED, true);
+        meterRegistry.counter("dynamodb.circuit.rejected").increment();
+        throw SdkClientException.create("DynamoDB circuit breaker is open");
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(false);
+        if (Boolean.TRUE.equals(attributes.getAttribute(PROBE))) {
+            probeInFlight.set(false);
+            close();
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        if (Boolean.TRUE.equals(attributes.getAttribute(REJECTED))) {
+            return;
+        }
+        Throwable error = context.exception();
+        if (error instanceof AwsServiceException serviceError && serviceError.isThrottlingException()) {
+            if (Boolean.TRUE.equals(attributes.getAttribute(PROBE))) {
+                // The service answered; the table is only busy
+                probeInFlight.set(false);
+                close();
+            }
+            return;
+        }
+        boolean distress = isDistress(error);
+        if (Boolean.TRUE.equals(attributes.getAttribute(PROBE))) {
+            probeInFlight.set(false);
+            if (distress) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        record(distress);
+    }
+
+    private void record(boolean failure) {
+        long now = System.currentTimeMillis();
+        RollingCounters current = window;
+        current.add("calls", 1, now);
+        if (!failure) {
+            return;
+        }
+        current.add("failures", 1, now);
+        long calls = current.sum("calls");
+        if (calls >= minimumCalls && (double) current.sum("failures") / calls >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt.set(System.currentTimeMillis());
+        if (state.getAndSet(OPEN) != OPEN) {
+            meterRegistry.counter("dynamodb.circuit.opened").increment();
+        }
+    }
+
+    private void close() {
+        // Failures from before the outage must not re-open the circuit straight away
+        window = new RollingCounters(1000, windowSeconds);
+        state.set(CLOSED);
+    }
+
+    private static boolean isDistress(Throwable error) {
+        if (error instanceof AwsServiceException serviceError) {
+            return serviceError.statusCode() >= 500;
+        }
+        return error instanceof SdkClientException;
+    }
+}
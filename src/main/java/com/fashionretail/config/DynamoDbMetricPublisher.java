@@ -0,0 +1,82 @@
+package com.fashionretail.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards the SDK's per-call metrics to Micrometer: call latency and retries per operation,
+ * plus connection pool state (leased, available, pending acquires) and the time spent waiting
+ * to acquire a connection. Pool gauges show the state seen by the most recent call.
+ */
+public class DynamoDbMetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong maxConnections = new AtomicLong();
+    private final AtomicLong leasedConnections = new AtomicLong();
+    private final AtomicLong availableConnections = new AtomicLong();
+    private final AtomicLong pendingAcquires = new AtomicLong();
+
+    public DynamoDbMetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("dynamodb.pool.max", maxConnections);
+        meterRegistry.gauge("dynamodb.pool.leased", leasedConnections);
+        meterRegistry.gauge("dynamodb.pool.available", availableConnections);
+        meterRegistry.gauge("dynamodb.pool.pending", pendingAcquires);
+        meterRegistry.gauge("dynamodb.pool.utilization", this, publisher -> publisher.maxConnections.get() == 0 ? 0
+                : (double) publisher.leasedConnections.get() / publisher.maxConnections.get());
+    }
+
+    @Override
+    public void publish(MetricCollection metrics) {
+        String operation = first(metrics, CoreMetric.OPERATION_NAME, "unknown");
+        boolean success = first(metrics, CoreMetric.API_CALL_SUCCESSFUL, false);
+        Duration duration = first(metrics, CoreMetric.API_CALL_DURATION, null);
+        if (duration != null) {
+            meterRegistry.timer("dynamodb.api.call", "operation", operation, "success", String.valueOf(success))
+                    .record(duration.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        int retries = first(metrics, CoreMetric.RETRY_COUNT, 0);
+        if (retries > 0) {
+            meterRegistry.counter("dynamodb.api.retries", "operation", operation).increment(retries);
+        }
+        metrics.childrenWithName("ApiCallAttempt")
+                .flatMap(attempt -> attempt.childrenWithName("HttpClient"))
+                .forEach(this::recordPool);
+    }
+
+    private void recordPool(MetricCollection http) {
+        update(http, HttpMetric.MAX_CONCURRENCY, maxConnections);
+        update(http, HttpMetric.LEASED_CONCURRENCY, leasedConnections);
+        update(http, HttpMetric.AVAILABLE_CONCURRENCY, availableConnections);
+        update(http, HttpMetric.PENDING_CONCURRENCY_ACQUIRES, pendingAcquires);
+        Duration acquire = first(http, HttpMetric.CONCURRENCY_ACQUIRE_DURATION, null);
+        if (acquire != null) {
+            meterRegistry.timer("dynamodb.pool.acquire").record(acquire.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void update(MetricCollection metrics, SdkMetric<Integer> metric, AtomicLong gauge) {
+        Integer value = first(metrics, metric, null);
+        if (value != null) {
+            gauge.set(value);
+        }
+    }
+
+    private static <T> T first(MetricCollection metrics, SdkMetric<T> metric, T defaultValue) {
+        List<T> values = metrics.metricValues(metric);
+        return values.isEmpty() ? defaultValue : values.get(0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
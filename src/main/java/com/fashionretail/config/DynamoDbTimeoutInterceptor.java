@@ -0,0 +1,49 @@
+package com.fashionretail.config;
+
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbRequest;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Applies per-operation API call and attempt timeouts, e.g. longer ones for Scan pages than
+ * for GetItem. Operations without an override use the client-wide timeouts, and a timeout set
+ * explicitly on a request always wins.
+ */
+public class DynamoDbTimeoutInterceptor implements ExecutionInterceptor {
+
+    private final Map<String, Duration> apiCallTimeouts;
+    private final Map<String, Duration> attemptTimeouts;
+
+    public DynamoDbTimeoutInterceptor(Map<String, Duration> apiCallTimeouts, Map<String, Duration> attemptTimeouts) {
+        this.apiCallTimeouts = apiCallTimeouts;
+        this.attemptTimeouts = attemptTimeouts;
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        String operation = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        Duration apiCall = apiCallTimeouts.get(operation);
+        Duration attempt = attemptTimeouts.get(operation);
+        if ((apiCall == null && attempt == null) || !(context.request() instanceof DynamoDbRequest request)) {
+            return context.request();
+        }
+        AwsRequestOverrideConfiguration.Builder override = request.overrideConfiguration()
+                .map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder);
+        AwsRequestOverrideConfiguration current = override.build();
+        if (apiCall != null && current.apiCallTimeout().isEmpty()) {
+            override.apiCallTimeout(apiCall);
+        }
+        if (attempt != null && current.apiCallAttemptTimeout().isEmpty()) {
+            override.apiCallAttemptTimeout(attempt);
+        }
+        return request.toBuilder().overrideConfiguration(override.build()).build();
+    }
+}
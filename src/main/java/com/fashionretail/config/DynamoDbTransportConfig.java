@@ -0,0 +1,181 @@
+package com.fashionretail.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.backoff.EqualJitterBackoffStrategy;
+import software.amazon.awssdk.core.retry.backoff.FullJitterBackoffStrategy;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketExceptionCostFunction;
+import software.amazon.awssdk.core.retry.conditions.TokenBucketRetryCondition;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP transport, timeouts and retry behaviour of the DynamoDB client. Every repository shares
+ * the one client, so the connection pool, retry budget and circuit breaker built here are
+ * shared too. Settings live under {@code aws.dynamodb.*}; application-prod.properties holds
+ * the production profile.
+ */
+@Slf4j
+@Configuration
+public class DynamoDbTransportConfig {
+
+    @Value("${aws.dynamodb.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${aws.dynamodb.http.connection-timeout-ms:2000}")
+    private long connectionTimeoutMs;
+
+    @Value("${aws.dynamodb.http.acquire-timeout-ms:10000}")
+    private long acquireTimeoutMs;
+
+    @Value("${aws.dynamodb.http.socket-timeout-ms:30000}")
+    private long socketTimeoutMs;
+
+    @Value("${aws.dynamodb.http.connection-ttl-ms:-1}")
+    private long connectionTtlMs;
+
+    @Value("${aws.dynamodb.http.max-idle-ms:60000}")
+    private long maxIdleMs;
+
+    @Value("${aws.dynamodb.http.tcp-keep-alive:false}")
+    private boolean tcpKeepAlive;
+
+    // Non-zero by default: with the CRT client these are the only read timeouts there are
+    @Value("${aws.dynamodb.timeout.api-call-ms:3000}")
+    private long apiCallTimeoutMs;
+
+    @Value("${aws.dynamodb.timeout.attempt-ms:1000}")
+    private long attemptTimeoutMs;
+
+    /**
+     * Apache client: blocking, one connection per in-flight call, with an idle reaper thread.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aws.dynamodb.http.client", havingValue = "apache", matchIfMissing = true)
+    public SdkHttpClient apacheDynamoDbHttpClient() {
+        return ApacheHttpClient.builder()
+                .maxConnections(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMs))
+                .socketTimeout(Duration.ofMillis(socketTimeoutMs))
+                .connectionTimeToLive(Duration.ofMillis(connectionTtlMs))
+                .connectionMaxIdleTime(Duration.ofMillis(maxIdleMs))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(tcpKeepAlive)
+                .build();
+    }
+
+    /**
+     * AWS CRT client: native event loop, lower per-connection overhead and faster cold start.
+     * It has no socket read or pool acquisition timeout, so a stalled connection is only cut
+     * off by the SDK's API-call and attempt timeouts.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aws.dynamodb.http.client", havingValue = "crt")
+    public SdkHttpClient crtDynamoDbHttpClient() {
+        log.warn("DynamoDB CRT client ignores aws.dynamodb.http.socket-timeout-ms, acquire-timeout-ms "
+                + "and connection-ttl-ms; reads are bounded by aws.dynamodb.timeout.* only");
+        if (apiCallTimeoutMs <= 0 || attemptTimeoutMs <= 0) {
+            log.warn("DynamoDB CRT client without aws.dynamodb.timeout.api-call-ms/attempt-ms: "
+                    + "a stalled connection can block callers indefinitely");
+        }
+        var builder = AwsCrtHttpClient.builder()
+                .maxConcurrency(maxConnections)
+                .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                .connectionMaxIdleTime(Duration.ofMillis(maxIdleMs));
+        if (tcpKeepAlive) {
+            builder.tcpKeepAliveConfiguration(TcpKeepAliveConfiguration.builder()
+                    .keepAliveInterval(Duration.ofSeconds(30))
+                    .keepAliveTimeout(Duration.ofSeconds(5))
+                    .build());
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public ClientOverrideConfiguration dynamoDbOverrideConfiguration(
+            @Value("${aws.dynamodb.timeout.api-call-overrides:}") List<String> apiCallOverrides,
+            @Value("${aws.dynamodb.timeout.attempt-overrides:}") List<String> attemptOverrides,
+            @Value("${aws.dynamodb.retry.max-retries:3}") int maxRetries,
+            @Value("${aws.dynamodb.retry.base-delay-ms:25}") long baseDelayMs,
+            @Value("${aws.dynamodb.retry.throttling-base-delay-ms:500}") long throttlingBaseDelayMs,
+            @Value("${aws.dynamodb.retry.max-backoff-ms:20000}") long maxBackoffMs,
+            @Value("${aws.dynamodb.retry.budget-tokens:500}") int budgetTokens,
+            @Value("${aws.dynamodb.retry.cost:5}") int retryCost,
+            @Value("${aws.dynamodb.circuit-breaker.enabled:true}") boolean circuitBreakerEnabled,
+            @Value("${aws.dynamodb.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${aws.dynamodb.circuit-breaker.minimum-calls:50}") long minimumCalls,
+            @Value("${aws.dynamodb.circuit-breaker.window-seconds:10}") int windowSeconds,
+            @Value("${aws.dynamodb.circuit-breaker.open-ms:5000}") long openMs,
+            MeterRegistry meterRegistry) {
+        // One token bucket for the whole client: when retries keep failing the budget runs dry
+        // and further failures surface immediately instead of multiplying load on DynamoDB
+        RetryPolicy retryPolicy = RetryPolicy.builder(RetryMode.STANDARD)
+                .numRetries(maxRetries)
+                .backoffStrategy(FullJitterBackoffStrategy.builder()
+                        .baseDelay(Duration.ofMillis(baseDelayMs))
+                        .maxBackoffTime(Duration.ofMillis(maxBackoffMs))
+                        .build())
+                .throttlingBackoffStrategy(EqualJitterBackoffStrategy.builder()
+                        .baseDelay(Duration.ofMillis(throttlingBaseDelayMs))
+                        .maxBackoffTime(Duration.ofMillis(maxBackoffMs))
+                        .build())
+                .retryCapacityCondition(TokenBucketRetryCondition.builder()
+                        .tokenBucketSize(budgetTokens)
+                        .exceptionCostFunction(TokenBucketExceptionCostFunction.builder()
+                                .throttlingExceptionCost(retryCost)
+                                .defaultExceptionCost(retryCost)
+                                .build())
+                        .build())
+                .build();
+
+        var builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(retryPolicy)
+                .addMetricPublisher(new DynamoDbMetricPublisher(meterRegistry))
+                .addExecutionInterceptor(new DynamoDbTimeoutInterceptor(
+                        parseOverrides(apiCallOverrides), parseOverrides(attemptOverrides)));
+        if (circuitBreakerEnabled) {
+            builder.addExecutionInterceptor(new DynamoDbCircuitBreaker(failureRateThreshold, minimumCalls,
+                    windowSeconds, openMs, meterRegistry));
+        }
+        if (apiCallTimeoutMs > 0) {
+            builder.apiCallTimeout(Duration.ofMillis(apiCallTimeoutMs));
+        }
+        if (attemptTimeoutMs > 0) {
+            builder.apiCallAttemptTimeout(Duration.ofMillis(attemptTimeoutMs));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses {@code Operation=millis} entries, e.g. {@code Scan=30000,BatchWriteItem=10000}.
+     */
+    private static Map<String, Duration> parseOverrides(List<String> entries) {
+        Map<String, Duration> overrides = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected Operation=millis but got: " + entry);
+            }
+            overrides.put(parts[0].trim(), Duration.ofMillis(Long.parseLong(parts[1].trim())));
+        }
+        return overrides;
+    }
+}
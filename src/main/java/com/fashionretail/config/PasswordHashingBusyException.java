@@ -0,0 +1,12 @@
+package com.fashionretail.config;
+
+/**
+ * Thrown when the password hashing pool is saturated. Callers should answer 503 with a short
+ * Retry-After rather than queue more CPU-bound work.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
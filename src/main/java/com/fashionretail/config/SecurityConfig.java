@@ -1,6 +1,9 @@
 package com.fashionretail.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,21 +11,26 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private final AdmissionController admissionController;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**", "/api/products/**", 
+                // Async re-dispatches (SSE, async image responses) were authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/api/admin/**", "/actuator/requesttraces/**").hasRole("ADMIN")
+                .requestMatchers("/api/auth/**", "/api/products/**", "/api/images/**",
                                 "/*.html", "/static/**", "/h2-console/**",
                                 "/stylesheet.css", "/images/**", "/", "/actuator/**",
                                 "/favicon.ico", "/error").permitAll()
@@ -31,14 +39,25 @@ public class SecurityConfig {
             .headers(headers -> headers.frameOptions(frame -> frame.disable()))
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-            );
+            )
+            .addFilterBefore(new AdmissionControlFilter(admissionController),
+                AnonymousAuthenticationFilter.class);
 
         return http.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.workers:0}") int workers,
+            @Value("${security.password.queue-capacity:32}") int queueCapacity,
+            @Value("${security.password.max-wait-ms:2000}") long maxWaitMillis,
+            @Value("${security.password.target-ms:100}") long targetMillis,
+            @Value("${security.password.min-cost:10}") int minCost,
+            @Value("${security.password.max-cost:14}") int maxCost,
+            MeterRegistry meterRegistry) {
+        int poolSize = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedBCryptPasswordEncoder(poolSize, queueCapacity, maxWaitMillis,
+                targetMillis, minCost, maxCost, meterRegistry);
     }
 
     @Bean
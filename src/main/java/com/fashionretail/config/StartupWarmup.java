@@ -0,0 +1,238 @@
+package com.fashionretail.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.dto.AddToCartRequest;
+import com.fashionretail.dto.CreateOrderRequest;
+import com.fashionretail.dto.LoginRequest;
+import com.fashionretail.dto.RegisterRequest;
+import com.fashionretail.model.CartItem;
+import com.fashionretail.model.Order;
+import com.fashionretail.model.OrderItem;
+import com.fashionretail.model.Product;
+import com.fashionretail.model.User;
+import com.fashionretail.repository.ProductRepository;
+import com.fashionretail.service.ProductCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warms a fresh instance up before it takes traffic. Application runners complete before
+ * Spring Boot publishes {@link ReadinessState#ACCEPTING_TRAFFIC}, so the readiness probe
+ * (/actuator/health/readiness) stays OUT_OF_SERVICE until every step here has finished.
+ * Unordered, so it runs after {@link BulkCommandRunner}, which exits before warm-up in CLI mode.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    static final String USER_AGENT = "startup-warmup";
+    static final String TOKEN_HEADER = "X-Warmup-Token";
+    // Per boot and never sent off the host, so a client cannot pass itself off as warm-up traffic
+    static final String TOKEN = UUID.randomUUID().toString();
+
+    private final ApplicationContext applicationContext;
+    private final DynamoDbClient dynamoDbClient;
+    private final List<DynamoDbTable<?>> tables;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AtomicLong timeToReadyMillis = new AtomicLong();
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.connections:8}")
+    private int connections;
+
+    @Value("${warmup.cache-preload-limit:1000}")
+    private int cachePreloadLimit;
+
+    // Longer than the rest of warm-up, so the preload is still cached when traffic arrives
+    @Value("${warmup.cache-preload-ttl-ms:60000}")
+    private long cachePreloadTtlMs;
+
+    @Value("${warmup.iterations:10}")
+    private int iterations;
+
+    // Cheap paths only: anything that scans a table multiplies the scan by iterations
+    @Value("${warmup.paths:/api/products/top-sellers}")
+    private List<String> paths;
+
+    public StartupWarmup(ApplicationContext applicationContext,
+                         DynamoDbClient dynamoDbClient,
+                         List<DynamoDbTable<?>> tables,
+                         ProductRepository productRepository,
+                         ProductCache productCache,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+        this.applicationContext = applicationContext;
+        this.dynamoDbClient = dynamoDbClient;
+        this.tables = tables;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("warmup.time.to.ready", timeToReadyMillis,
+                millis -> millis.get() / 1000.0);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.currentTimeMillis();
+
+        step("connections", this::openConnections);
+        step("table-schemas", this::resolveTableSchemas);
+        List<Product> products = new ArrayList<>();
+        step("product-cache", () -> preloadProducts(products));
+        step("serializers", this::warmSerializers);
+        step("http-paths", () -> callPaths(products));
+
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        timeToReadyMillis.set(System.currentTimeMillis() - jvmStart);
+        log.info("Warm-up finished in {} ms, {} ms after JVM start", System.currentTimeMillis() - start,
+                timeToReadyMillis.get());
+    }
+
+    private void step(String name, Runnable step) {
+        Timer timer = Timer.builder("warmup.step.duration").tag("step", name).register(meterRegistry);
+        long start = System.nanoTime();
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            // A failed step only means a colder start; never keep the instance out of rotation
+            log.warn("Warm-up step {} failed", name, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Warm-up step {} took {} ms", name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    /**
+     * Issues concurrent DescribeTable calls so the HTTP pool holds several connections with
+     * completed TLS handshakes before the first real request arrives.
+     */
+    private void openConnections() {
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            String tableName = tables.get(i % tables.size()).tableName();
+            calls.add(CompletableFuture.runAsync(() ->
+                    dynamoDbClient.describeTable(request -> request.tableName(tableName))));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void resolveTableSchemas() {
+        for (DynamoDbTable<?> table : tables) {
+            resolveSchema(table);
+        }
+    }
+
+    private <T> void resolveSchema(DynamoDbTable<T> table) {
+        try {
+            T item = table.tableSchema().itemType().rawClass().getDeclaredConstructor().newInstance();
+            table.tableSchema().mapToItem(table.tableSchema().itemToMap(item, true));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + table.tableName() + " item", e);
+        }
+    }
+
+    /**
+     * Caches one bounded scan page of products rather than the whole catalogue.
+     */
+    private void preloadProducts(List<Product> products) {
+        for (Product product : productRepository.findFirstPage(cachePreloadLimit)) {
+            productCache.put(product, cachePreloadTtlMs);
+            products.add(product);
+        }
+    }
+
+    private void warmSerializers() {
+        Product product = new Product("warmup", "Warm-up", "", BigDecimal.ONE, "/images/product-1.jpg",
+                "warmup", 1, 5.0, true);
+        Order order = new Order();
+        order.setOrderItems(List.of(new OrderItem("warmup", "Warm-up", "warmup", 1, BigDecimal.ONE)));
+        order.setTotalAmount(BigDecimal.ONE);
+        order.onCreate();
+        CartItem cartItem = new CartItem("warmup", "warmup", "warmup", 1, BigDecimal.ONE);
+        User user = new User();
+        user.onCreate();
+        try {
+            for (Object value : List.of(product, order, cartItem, user)) {
+                objectMapper.readValue(objectMapper.writeValueAsString(value), value.getClass());
+            }
+            objectMapper.writeValueAsString(List.of(product));
+            objectMapper.readValue("{\"productId\":\"warmup\",\"quantity\":1}", AddToCartRequest.class);
+            objectMapper.readValue("{\"shippingAddress\":\"warmup\"}", CreateOrderRequest.class);
+            objectMapper.readValue("{\"email\":\"a@b.c\",\"password\":\"x\"}", LoginRequest.class);
+            objectMapper.readValue("{\"email\":\"a@b.c\",\"password\":\"x\"}", RegisterRequest.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Serializer warm-up failed", e);
+        }
+    }
+
+    /**
+     * Sends synthetic requests through the real filter chain, controllers and message converters
+     * so those code paths are interpreted and compiled before users hit them.
+     */
+    private void callPaths(List<Product> products) {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null) {
+            return;
+        }
+        int port = webContext.getWebServer().getPort();
+        List<String> targets = new ArrayList<>(paths);
+        if (!products.isEmpty()) {
+            targets.add("/api/products/" + products.get(0).getId());
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        for (int i = 0; i < iterations; i++) {
+            for (String path : targets) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("User-Agent", USER_AGENT)
+                        .header(TOKEN_HEADER, TOKEN)
+                        .timeout(Duration.ofSeconds(10))
+                        .GET()
+                        .build();
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.debug("Warm-up request to {} failed", path, e);
+                }
+            }
+        }
+    }
+}
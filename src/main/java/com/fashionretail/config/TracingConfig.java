@@ -0,0 +1,32 @@
+package com.fashionretail.config;
+
+import com.fashionretail.tracing.RequestTracer;
+import com.fashionretail.tracing.TracingFilter;
+import com.fashionretail.tracing.TracingInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class TracingConfig implements WebMvcConfigurer {
+
+    private final RequestTracer requestTracer;
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter() {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(requestTracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new TracingInterceptor()).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,32 @@
+package com.fashionretail.controller;
+
+import com.fashionretail.dto.CategorySalesResponse;
+import com.fashionretail.dto.TopSellerResponse;
+import com.fashionretail.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategorySalesResponse>> getCategorySales(
+            @RequestParam(defaultValue = "DAY") SalesAnalyticsService.Window window) {
+        return ResponseEntity.ok(salesAnalyticsService.categorySales(window));
+    }
+
+    @GetMapping("/top-sellers")
+    public ResponseEntity<List<TopSellerResponse>> getTopSellers(
+            @RequestParam(defaultValue = "DAY") SalesAnalyticsService.Window window,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.topSellers(window, limit));
+    }
+}
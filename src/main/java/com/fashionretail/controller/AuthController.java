@@ -1,10 +1,12 @@
 package com.fashionretail.controller;
 
+import com.fashionretail.config.PasswordHashingBusyException;
 import com.fashionretail.dto.LoginRequest;
 import com.fashionretail.dto.RegisterRequest;
 import com.fashionretail.model.User;
 import com.fashionretail.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,7 +34,12 @@ public class AuthController {
         user.setFullName(request.getFullName());
         user.setPhoneNumber(request.getPhoneNumber());
         
-        User registeredUser = userService.registerUser(user);
+        User registeredUser;
+        try {
+            registeredUser = userService.registerUser(user);
+        } catch (PasswordHashingBusyException e) {
+            return busy();
+        }
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "User registered successfully");
@@ -43,9 +50,14 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
+        } catch (PasswordHashingBusyException e) {
+            return busy();
+        }
 
         User user = userService.getUserByEmail(request.getEmail());
         
@@ -56,4 +68,12 @@ public class AuthController {
         
         return ResponseEntity.ok(response);
     }
+
+    private ResponseEntity<Map<String, String>> busy() {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Too many sign-in attempts right now, please retry shortly");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
 }
@@ -0,0 +1,59 @@
+package com.fashionretail.controller;
+
+import com.fashionretail.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    @GetMapping("/products")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @RequestParam(required = false) Integer segments) {
+        return stream("products", format, out -> exportService.exportProducts(format, segments, out));
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @RequestParam(required = false) Integer segments,
+            @RequestParam(required = false) String userId) {
+        return stream("orders", format, out -> exportService.exportOrders(format, segments, userId, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportService.Format format,
+                                                         ExportBody body) {
+        StreamingResponseBody response = out -> {
+            try {
+                body.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Export failed", e);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .body(response);
+    }
+
+    @FunctionalInterface
+    private interface ExportBody {
+        void writeTo(OutputStream out) throws Exception;
+    }
+}
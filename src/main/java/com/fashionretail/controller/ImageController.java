@@ -0,0 +1,75 @@
+package com.fashionretail.controller;
+
+import com.fashionretail.service.ImageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/images")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ImageController {
+
+    private final ImageService imageService;
+
+    /**
+     * Resized derivative of a product image, e.g.
+     * {@code /api/images/thumbnail?src=/images/HRXS2.jpg}. Generation happens off the request
+     * thread. When {@code v} matches the derivative's version the response is cacheable
+     * forever; otherwise clients revalidate with the ETag once a day.
+     */
+    @GetMapping("/{size}")
+    public CompletableFuture<ResponseEntity<Resource>> getImage(
+            @PathVariable String size,
+            @RequestParam String src,
+            @RequestParam(required = false) String v,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        ImageService.Size imageSize;
+        try {
+            imageSize = ImageService.Size.valueOf(size.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        if (!imageService.exists(src)) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        return imageService.getDerivative(src, imageSize)
+                .thenApply(derivative -> respond(derivative, v, ifNoneMatch))
+                .exceptionally(ImageController::busy);
+    }
+
+    private static ResponseEntity<Resource> respond(ImageService.Derivative derivative, String v, String ifNoneMatch) {
+        String etag = "\"" + derivative.version() + "\"";
+        CacheControl cacheControl = derivative.version().equals(v)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(derivative.contentType()))
+                .contentLength(derivative.length())
+                .body(new FileSystemResource(derivative.file()));
+    }
+
+    private static ResponseEntity<Resource> busy(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
+        }
+        throw error instanceof RuntimeException runtime ? runtime : new CompletionException(error);
+    }
+}
@@ -0,0 +1,37 @@
+package com.fashionretail.controller;
+
+import com.fashionretail.dto.ImportJobStatus;
+import com.fashionretail.service.ExportService;
+import com.fashionretail.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/import")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+    private final ProductImportService productImportService;
+
+    /**
+     * Streams the raw request body (CSV with a header row, or NDJSON) into the Product table.
+     * Re-submitting the same file with the same jobId resumes after the last checkpoint.
+     */
+    @PostMapping("/products")
+    public ResponseEntity<ImportJobStatus> importProducts(
+            @RequestParam(defaultValue = "CSV") ExportService.Format format,
+            @RequestParam(required = false) String jobId,
+            HttpServletRequest request) throws IOException, InterruptedException {
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), format, jobId));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobStatus> getImportStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getStatus(jobId));
+    }
+}
@@ -3,15 +3,23 @@ package com.fashionretail.controller;
 import com.fashionretail.dto.CreateOrderRequest;
 import com.fashionretail.model.Order;
 import com.fashionretail.model.User;
+import com.fashionretail.service.IdempotencyException;
+import com.fashionretail.service.IdempotencyService;
+import com.fashionretail.service.OrderConflictException;
 import com.fashionretail.service.OrderService;
+import com.fashionretail.service.OrderStatusBroadcaster;
 import com.fashionretail.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -21,6 +29,8 @@ public class OrderController {
 
     private final OrderService orderService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
+    private final OrderStatusBroadcaster orderStatusBroadcaster;
 
     @GetMapping
     public ResponseEntity<List<Order>> getUserOrders(Authentication authentication) {
@@ -28,17 +38,52 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getUserOrders(user.getId()));
     }
 
+    /**
+     * Server-Sent Events of the caller's order status changes ({@code order-status} events),
+     * replacing polling of the endpoints above. EventSource sends Last-Event-ID on reconnect;
+     * the {@code lastEventId} parameter does the same for a client that reconnects by hand.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderStatus(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            Authentication authentication) {
+        User user = userService.getUserByEmail(authentication.getName());
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return orderStatusBroadcaster.subscribe(user.getId(), lastEventId)
+                .map(emitter -> ResponseEntity.ok()
+                        // Keep reverse proxies from buffering the stream
+                        .header("X-Accel-Buffering", "no")
+                        .body(emitter))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable String id) {
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
+    /**
+     * With an Idempotency-Key header, retries of the same checkout return the first order
+     * (marked with Idempotent-Replayed: true) instead of placing another one.
+     */
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request,
+                                              @RequestHeader(value = "Idempotency-Key", required = false)
+                                              String idempotencyKey,
                                               Authentication authentication) {
-        User user = userService.getUserByEmail(authentication.getName());
-        Order order = orderService.createOrder(user.getId(), request.getShippingAddress());
-        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(placeOrder(request, authentication));
+        }
+        // Scoped by login email so a replay needs no user lookup
+        IdempotencyService.Result<Order> result = idempotencyService.execute(authentication.getName(),
+                idempotencyKey, request.getShippingAddress(), Order.class,
+                () -> placeOrder(request, authentication));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(result.value());
     }
 
     @PutMapping("/{id}/status")
@@ -46,4 +91,25 @@ public class OrderController {
                                                     @RequestParam Order.OrderStatus status) {
         return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
     }
+
+    @ExceptionHandler(IdempotencyException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotency(IdempotencyException e) {
+        ResponseEntity.BodyBuilder response = switch (e.getReason()) {
+            case INVALID_KEY -> ResponseEntity.badRequest();
+            // The first request is still running; a retry shortly after will get its result
+            case IN_PROGRESS -> ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1");
+            case PAYLOAD_MISMATCH -> ResponseEntity.unprocessableEntity();
+        };
+        return response.body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(OrderConflictException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OrderConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    private Order placeOrder(CreateOrderRequest request, Authentication authentication) {
+        User user = userService.getUserByEmail(authentication.getName());
+        return orderService.createOrder(user.getId(), request.getShippingAddress());
+    }
 }
@@ -0,0 +1,39 @@
+package com.fashionretail.controller;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.outbox.OutboxDispatcher;
+import com.fashionretail.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class OutboxController {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxDispatcher outboxDispatcher;
+
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<OutboxEvent>> getDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(outboxRepository.findDeadLetters(limit));
+    }
+
+    /**
+     * Moves a dead-lettered event back to the outbox with a fresh retry budget, e.g. after
+     * fixing whatever made its handlers fail. Handlers that already succeeded are not re-run.
+     */
+    @PostMapping("/dead-letters/{shard}/{eventId}/requeue")
+    public ResponseEntity<Map<String, String>> requeue(@PathVariable int shard, @PathVariable String eventId) {
+        if (!outboxRepository.requeue(shard, eventId, System.currentTimeMillis())) {
+            return ResponseEntity.notFound().build();
+        }
+        outboxDispatcher.wakeUp();
+        return ResponseEntity.ok(Map.of("message", "Event requeued", "eventId", eventId));
+    }
+}
@@ -1,7 +1,9 @@
 package com.fashionretail.controller;
 
+import com.fashionretail.dto.TopSellerResponse;
 import com.fashionretail.model.Product;
 import com.fashionretail.service.ProductService;
+import com.fashionretail.service.SalesAnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,17 +18,31 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final SalesAnalyticsService salesAnalyticsService;
 
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @GetMapping("/top-sellers")
+    public ResponseEntity<List<TopSellerResponse>> getTopSellers(
+            @RequestParam(defaultValue = "DAY") SalesAnalyticsService.Window window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(salesAnalyticsService.topSellers(window, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable String id) {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<Product>> getRelatedProducts(@PathVariable String id,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.getRelatedProducts(id, limit));
+    }
+
     @GetMapping("/category/{category}")
     public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(productService.getProductsByCategory(category));
@@ -0,0 +1,14 @@
+package com.fashionretail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class CategorySalesResponse {
+    private String category;
+    private Long unitsSold;
+    private BigDecimal revenue;
+}
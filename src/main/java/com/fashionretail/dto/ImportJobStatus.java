@@ -0,0 +1,21 @@
+package com.fashionretail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportJobStatus {
+    private String jobId;
+    private String state;
+    private Long rowsRead;
+    private Long rowsImported;
+    private Long rowsFailed;
+    private Long rowsSkipped;
+    private Long checkpoint;
+    private Double rowsPerSecond;
+    private Integer writeConcurrency;
+    private List<String> errors;
+}
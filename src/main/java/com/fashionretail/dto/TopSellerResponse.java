@@ -0,0 +1,15 @@
+package com.fashionretail.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class TopSellerResponse {
+    private String productId;
+    private String productName;
+    private Long unitsSold;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,48 @@
+package com.fashionretail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeRecord {
+
+    // Epoch minute the change was written in; keeps each partition small and time-ordered
+    private Long bucket;
+    // Zero-padded timestamp, node id and counter so records sort in write order
+    private String sequence;
+    private EntityType entityType;
+    private String entityId;
+    // Owning user of the entity, e.g. an order's userId; may be null
+    private String ownerId;
+    private Operation operation;
+    // Entity state listeners need as of this change, e.g. an order's status; may be null
+    private String detail;
+    private String nodeId;
+    private Long timestamp;
+    private Long expiresAt;
+
+    @DynamoDbPartitionKey
+    public Long getBucket() {
+        return bucket;
+    }
+
+    @DynamoDbSortKey
+    public String getSequence() {
+        return sequence;
+    }
+
+    public enum EntityType {
+        PRODUCT, USER, ORDER
+    }
+
+    public enum Operation {
+        SAVE, DELETE
+    }
+}
@@ -0,0 +1,37 @@
+package com.fashionretail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    // Caller scope and client-supplied Idempotency-Key, e.g. "user@example.com:3f2a..."
+    private String idempotencyKey;
+    // SHA-256 of the request payload; a reused key with a different payload is rejected
+    private String fingerprint;
+    private Status status;
+    // JSON of the first response, set once the request has completed
+    private String responseBody;
+    // An IN_PROGRESS record whose owner died can be taken over after this time
+    private Long lockedUntil;
+    // Random per claim; only the claim's owner may release it
+    private String ownerToken;
+    private Long createdAt;
+    private Long expiresAt;
+
+    @DynamoDbPartitionKey
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public enum Status {
+        IN_PROGRESS, COMPLETED
+    }
+}
@@ -15,6 +15,7 @@ public class OrderItem {
 
     private String productId;
     private String productName;
+    private String category;
     private Integer quantity;
     private BigDecimal price;
 
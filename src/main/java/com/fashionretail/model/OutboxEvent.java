@@ -0,0 +1,55 @@
+package com.fashionretail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    // Events of a shard by the time they become due, so dispatchers read only what is due
+    public static final String DUE_INDEX = "shard-availableAt-index";
+
+    // Spreads events over a few partitions; dispatchers query every shard
+    private Integer shard;
+    // Zero-padded creation time plus a random suffix, so events in a shard sort oldest first
+    private String eventId;
+    private String type;
+    private String aggregateId;
+    // JSON snapshot of the aggregate at the time of the event
+    private String payload;
+    private Integer attempts;
+    // Not dispatched before this time: set to a lease while claimed, and to the backoff after a failure
+    private Long availableAt;
+    // Handlers that already succeeded; a retry only runs the remaining ones
+    private List<String> completedHandlers = new ArrayList<>();
+    private String lastError;
+    private Long createdAt;
+
+    @DynamoDbPartitionKey
+    @DynamoDbSecondaryPartitionKey(indexNames = DUE_INDEX)
+    public Integer getShard() {
+        return shard;
+    }
+
+    @DynamoDbSortKey
+    public String getEventId() {
+        return eventId;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = DUE_INDEX)
+    public Long getAvailableAt() {
+        return availableAt;
+    }
+}
@@ -0,0 +1,41 @@
+package com.fashionretail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSnapshot {
+
+    // "shard-" + analytics.shard-id of the instance that owns the counters
+    private String shardId;
+    private String snapshotKey;
+    private String dimension;
+    private String name;
+    // Display name, for product rows; lets other shards label products they have not sold
+    private String productName;
+    private String window;
+    private Long epoch;
+    private Long units;
+    private Long revenueCents;
+    private Long expiresAt;
+    // Shard lease row only: the instance that holds the shard, and until when
+    private String leaseOwner;
+    private Long leasedUntil;
+
+    @DynamoDbPartitionKey
+    public String getShardId() {
+        return shardId;
+    }
+
+    @DynamoDbSortKey
+    public String getSnapshotKey() {
+        return snapshotKey;
+    }
+}
@@ -0,0 +1,26 @@
+package com.fashionretail.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+/**
+ * Uniqueness marker for a registered email. Written in the same transaction as the user with
+ * a condition that no marker exists yet, so two concurrent registrations cannot both succeed.
+ */
+@DynamoDbBean
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEmail {
+
+    private String email;
+    private String userId;
+
+    @DynamoDbPartitionKey
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.Order;
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.service.CartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the ordered products from the buyer's cart. Only the ordered lines are removed, so
+ * items added after checkout but before this runs stay in the cart.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartCleanupHandler implements OutboxHandler {
+
+    private final CartService cartService;
+    private final OrderEvents orderEvents;
+
+    @Override
+    public String eventType() {
+        return OrderEvents.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        Order order = orderEvents.order(event);
+        order.getOrderItems().forEach(item -> cartService.removeFromCart(order.getUserId(), item.getProductId()));
+    }
+}
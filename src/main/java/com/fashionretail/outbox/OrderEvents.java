@@ -0,0 +1,65 @@
+package com.fashionretail.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.model.Order;
+import com.fashionretail.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Builds and reads the outbox events of orders.
+ */
+@Component
+public class OrderEvents {
+
+    public static final String ORDER_CREATED = "OrderCreated";
+    public static final String ORDER_CANCELLED = "OrderCancelled";
+    // A cancelled order moved back to another status
+    public static final String ORDER_REINSTATED = "OrderReinstated";
+
+    private final ObjectMapper objectMapper;
+    private final int shards;
+
+    public OrderEvents(ObjectMapper objectMapper, @Value("${outbox.shards:4}") int shards) {
+        this.objectMapper = objectMapper;
+        this.shards = shards;
+    }
+
+    /**
+     * The event for a new order. The order must already have its id and creation time.
+     */
+    public OutboxEvent orderCreated(Order order) {
+        return event(ORDER_CREATED, order);
+    }
+
+    public OutboxEvent orderCancelled(Order order) {
+        return event(ORDER_CANCELLED, order);
+    }
+
+    public OutboxEvent orderReinstated(Order order) {
+        return event(ORDER_REINSTATED, order);
+    }
+
+    private OutboxEvent event(String type, Order order) {
+        long now = System.currentTimeMillis();
+        String eventId = String.format("%013d-%s", now, UUID.randomUUID());
+        try {
+            return new OutboxEvent(Math.floorMod(order.getId().hashCode(), shards), eventId, type,
+                    order.getId(), objectMapper.writeValueAsString(order), 0, now, new ArrayList<>(), null, now);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order " + order.getId(), e);
+        }
+    }
+
+    public Order order(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), Order.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read order from event " + event.getEventId(), e);
+        }
+    }
+}
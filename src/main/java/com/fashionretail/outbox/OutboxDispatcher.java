@@ -0,0 +1,194 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Drains the outbox: claims due events with a lease, runs every {@link OutboxHandler} for the
+ * event type and deletes the event once all of them succeeded. A failed event is retried with
+ * exponential backoff, running only the handlers that have not succeeded yet (each success is
+ * saved with the event before the next handler runs), and moves to the dead-letter store
+ * after {@code outbox.max-attempts}.
+ * <p>
+ * Any node can dispatch any event; the conditional claim keeps two nodes from working on the
+ * same event at once. If a node stops mid-event, the lease expires and another node retries it.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectProvider<OutboxHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final int shards;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Timer deliveryLag;
+    private final ExecutorService wakeExecutor;
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    // Creation time of the oldest pending event at the last drain, or 0 if the outbox was empty
+    private volatile long oldestPendingAt;
+
+    public OutboxDispatcher(OutboxRepository outboxRepository,
+                            ObjectProvider<OutboxHandler> handlers,
+                            MeterRegistry meterRegistry,
+                            @Value("${outbox.shards:4}") int shards,
+                            @Value("${outbox.batch-size:50}") int batchSize,
+                            @Value("${outbox.lease-ms:30000}") long leaseMillis,
+                            @Value("${outbox.max-attempts:8}") int maxAttempts,
+                            @Value("${outbox.retry.initial-backoff-ms:1000}") long initialBackoffMillis,
+                            @Value("${outbox.retry.max-backoff-ms:300000}") long maxBackoffMillis) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.meterRegistry = meterRegistry;
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .description("Time between an event being written and all of its handlers succeeding")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        TimeGauge.builder("outbox.lag", this, TimeUnit.MILLISECONDS, OutboxDispatcher::lagMillis)
+                .description("Age of the oldest event still in the outbox")
+                .register(meterRegistry);
+        this.wakeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Asks for a drain right away instead of at the next poll, e.g. after a checkout so the
+     * cart is cleaned up promptly. Requests made while one is pending are merged.
+     */
+    public void wakeUp() {
+        if (wakePending.compareAndSet(false, true)) {
+            wakeExecutor.execute(() -> {
+                wakePending.set(false);
+                drain();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        drain();
+    }
+
+    public long lagMillis() {
+        long oldest = oldestPendingAt;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    public synchronized void drain() {
+        try {
+            long oldest = Long.MAX_VALUE;
+            for (int shard = 0; shard < shards; shard++) {
+                // Events that become due during the pass are left for the next one
+                try (Stream<OutboxEvent> events = outboxRepository.findDue(shard, System.currentTimeMillis(), batchSize)) {
+                    events.forEach(this::process);
+                }
+                oldest = Math.min(oldest, outboxRepository.findOldest(shard)
+                        .map(OutboxEvent::getCreatedAt)
+                        .orElse(Long.MAX_VALUE));
+            }
+            oldestPendingAt = oldest == Long.MAX_VALUE ? 0 : oldest;
+        } catch (RuntimeException e) {
+            log.warn("Outbox drain failed, will retry at the next poll", e);
+        }
+    }
+
+    private void process(OutboxEvent event) {
+        long seen = event.getAvailableAt();
+        long now = System.currentTimeMillis();
+        long lease = now + leaseMillis;
+        event.setAvailableAt(lease);
+        event.setAttempts(event.getAttempts() == null ? 1 : event.getAttempts() + 1);
+        if (event.getCompletedHandlers() == null) {
+            event.setCompletedHandlers(new ArrayList<>());
+        }
+        if (!outboxRepository.replace(event, seen)) {
+            // Claimed by another node
+            return;
+        }
+
+        RuntimeException failure = null;
+        for (OutboxHandler handler : handlers.orderedStream().toList()) {
+            String name = handler.getClass().getSimpleName();
+            if (!handler.eventType().equals(event.getType()) || event.getCompletedHandlers().contains(name)) {
+                continue;
+            }
+            try {
+                handler.handle(event);
+            } catch (RuntimeException e) {
+                log.warn("Outbox handler {} failed for {} {} (attempt {})", name, event.getType(),
+                        event.getAggregateId(), event.getAttempts(), e);
+                if (failure == null) {
+                    failure = e;
+                }
+                continue;
+            }
+            // Recorded before the next handler runs: the analytics and recommendation handlers
+            // count, so a redelivery after a crash or a failed delete must not run them again
+            event.getCompletedHandlers().add(name);
+            if (!outboxRepository.replace(event, lease)) {
+                log.warn("Lost the lease on outbox event {} {}; another node carries on with it",
+                        event.getType(), event.getAggregateId());
+                return;
+            }
+        }
+
+        if (failure == null) {
+            outboxRepository.delete(event);
+            deliveryLag.record(Math.max(0, System.currentTimeMillis() - event.getCreatedAt()), TimeUnit.MILLISECONDS);
+            count(event, "delivered");
+            return;
+        }
+        event.setLastError(failure.getClass().getSimpleName() + ": " + failure.getMessage());
+        if (event.getAttempts() >= maxAttempts) {
+            outboxRepository.deadLetter(event);
+            log.error("Outbox event {} {} moved to the dead-letter store after {} attempts: {}",
+                    event.getType(), event.getAggregateId(), event.getAttempts(), event.getLastError());
+            count(event, "dead-lettered");
+            return;
+        }
+        event.setAvailableAt(System.currentTimeMillis() + backoff(event.getAttempts()));
+        outboxRepository.replace(event, lease);
+        count(event, "retried");
+    }
+
+    /**
+     * Exponential backoff with equal jitter, so events that failed together do not retry together.
+     */
+    private long backoff(int attempts) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private void count(OutboxEvent event, String outcome) {
+        meterRegistry.counter("outbox.events", "type", event.getType(), "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,14 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+
+/**
+ * Reacts to outbox events of one type. Delivery is at least once: a handler may see the same
+ * event again if its node stops between handling it and the event being acknowledged.
+ */
+public interface OutboxHandler {
+
+    String eventType();
+
+    void handle(OutboxEvent event);
+}
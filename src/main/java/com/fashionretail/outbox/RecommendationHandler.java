@@ -0,0 +1,24 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.service.RecommendationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class RecommendationHandler implements OutboxHandler {
+
+    private final RecommendationService recommendationService;
+    private final OrderEvents orderEvents;
+
+    @Override
+    public String eventType() {
+        return OrderEvents.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        recommendationService.recordOrder(orderEvents.order(event));
+    }
+}
@@ -0,0 +1,24 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SalesAnalyticsHandler implements OutboxHandler {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final OrderEvents orderEvents;
+
+    @Override
+    public String eventType() {
+        return OrderEvents.ORDER_CREATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        salesAnalyticsService.recordOrder(orderEvents.order(event));
+    }
+}
@@ -0,0 +1,27 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes a cancelled order's sales back out of the analytics counters.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesCancellationHandler implements OutboxHandler {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final OrderEvents orderEvents;
+
+    @Override
+    public String eventType() {
+        return OrderEvents.ORDER_CANCELLED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        salesAnalyticsService.recordCancellation(orderEvents.order(event));
+    }
+}
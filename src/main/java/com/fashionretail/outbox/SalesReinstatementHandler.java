@@ -0,0 +1,27 @@
+package com.fashionretail.outbox;
+
+import com.fashionretail.model.OutboxEvent;
+import com.fashionretail.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the sales of a cancelled order again once it is moved back to another status.
+ */
+@Component
+@RequiredArgsConstructor
+public class SalesReinstatementHandler implements OutboxHandler {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final OrderEvents orderEvents;
+
+    @Override
+    public String eventType() {
+        return OrderEvents.ORDER_REINSTATED;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        salesAnalyticsService.recordOrder(orderEvents.order(event));
+    }
+}
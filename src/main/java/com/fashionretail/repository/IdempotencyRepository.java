@@ -0,0 +1,91 @@
+package com.fashionretail.repository;
+
+import com.fashionretail.model.IdempotencyRecord;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.Optional;
+
+@Repository
+public class IdempotencyRepository {
+
+    private final DynamoDbTable<IdempotencyRecord> idempotencyTable;
+
+    public IdempotencyRepository(DynamoDbTable<IdempotencyRecord> idempotencyTable) {
+        this.idempotencyTable = idempotencyTable;
+    }
+
+    /**
+     * Claims the key by writing an IN_PROGRESS record, unless a record already exists whose
+     * lock has not yet expired. Returns false if someone else holds or has completed the key.
+     */
+    public boolean tryAcquire(IdempotencyRecord record, long now) {
+        Expression claimable = Expression.builder()
+                .expression("attribute_not_exists(idempotencyKey) OR (#status = :inProgress AND lockedUntil < :now)")
+                .putExpressionName("#status", "status")
+                .putExpressionValue(":inProgress", AttributeValue.fromS(IdempotencyRecord.Status.IN_PROGRESS.name()))
+                .putExpressionValue(":now", AttributeValue.fromN(Long.toString(now)))
+                .build();
+        try {
+            idempotencyTable.putItem(PutItemEnhancedRequest.builder(IdempotencyRecord.class)
+                    .item(record)
+                    .conditionExpression(claimable)
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public Optional<IdempotencyRecord> findById(String idempotencyKey) {
+        return Optional.ofNullable(idempotencyTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(idempotencyKey).build())
+                .consistentRead(true)
+                .build()));
+    }
+
+    /**
+     * Replaces the claim held by {@code ownerToken} with {@code record}. Returns false if another
+     * owner has taken the key over meanwhile.
+     */
+    public boolean replaceClaim(IdempotencyRecord record, String ownerToken) {
+        try {
+            idempotencyTable.putItem(PutItemEnhancedRequest.builder(IdempotencyRecord.class)
+                    .item(record)
+                    .conditionExpression(Expression.builder()
+                            .expression("ownerToken = :owner")
+                            .putExpressionValue(":owner", AttributeValue.fromS(ownerToken))
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes an IN_PROGRESS claim, unless another owner has taken it over since (after the
+     * lock expired). Returns false in that case.
+     */
+    public boolean release(String idempotencyKey, String ownerToken) {
+        try {
+            idempotencyTable.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(idempotencyKey).build())
+                    .conditionExpression(Expression.builder()
+                            .expression("ownerToken = :owner")
+                            .putExpressionValue(":owner", AttributeValue.fromS(ownerToken))
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+}
@@ -1,49 +1,214 @@
 package com.fashionretail.repository;
 
+import com.fashionretail.archive.OrderArchive;
+import com.fashionretail.changefeed.ChangeFeedPublisher;
+import com.fashionretail.model.ChangeRecord;
 import com.fashionretail.model.Order;
+import com.fashionretail.model.OutboxEvent;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Orders live in the DynamoDB table (hot tier) until {@code OrderArchiver} moves them to the
+ * {@link OrderArchive} (cold tier). Reads check the hot table first and fall through to the
+ * archive, so callers see one store. A hot copy always wins over an archived one.
+ */
 @Repository
 public class OrderRepository {
 
     private final DynamoDbTable<Order> orderTable;
+    private final ChangeFeedPublisher changeFeed;
+    private final OrderArchive orderArchive;
+    private final OutboxRepository outboxRepository;
+    private final DynamoDbEnhancedClient enhancedClient;
 
-    public OrderRepository(DynamoDbTable<Order> orderTable) {
+    public OrderRepository(DynamoDbTable<Order> orderTable, ChangeFeedPublisher changeFeed,
+                           OrderArchive orderArchive, OutboxRepository outboxRepository,
+                           DynamoDbEnhancedClient enhancedClient) {
         this.orderTable = orderTable;
+        this.changeFeed = changeFeed;
+        this.orderArchive = orderArchive;
+        this.outboxRepository = outboxRepository;
+        this.enhancedClient = enhancedClient;
     }
 
     public Order save(Order order) {
         order.onCreate();
         orderTable.putItem(order);
+        publishSaved(order);
+        return order;
+    }
+
+    /**
+     * Writes the order and its outbox event in one transaction, so the event exists exactly
+     * when the order does. Call {@link Order#onCreate()} before building the event.
+     */
+    public Order saveWithEvent(Order order, OutboxEvent event) {
+        order.onCreate();
+        TransactWriteItemsEnhancedRequest.Builder transaction = TransactWriteItemsEnhancedRequest.builder()
+                .addPutItem(orderTable, order);
+        outboxRepository.addTo(transaction, event);
+        enhancedClient.transactWriteItems(transaction.build());
+        publishSaved(order);
         return order;
     }
 
     public Optional<Order> findById(String id) {
         Order order = orderTable.getItem(Key.builder().partitionValue(id).build());
-        return Optional.ofNullable(order);
+        return order != null ? Optional.of(order) : orderArchive.findById(id);
+    }
+
+    /**
+     * Strongly consistent read of the hot copy only, for reacting to a write that just happened.
+     */
+    public Optional<Order> findLatest(String id) {
+        return Optional.ofNullable(orderTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(id).build())
+                .consistentRead(true)
+                .build()));
     }
 
     public List<Order> findByUserId(String userId) {
-        return orderTable.scan().items().stream()
+        Map<String, Order> orders = new LinkedHashMap<>();
+        orderTable.scan().items().stream()
                 .filter(order -> userId.equals(order.getUserId()))
-                .collect(Collectors.toList());
+                .forEach(order -> orders.put(order.getId(), order));
+        orderArchive.findByUserId(userId).forEach(order -> orders.putIfAbsent(order.getId(), order));
+        return orders.values().stream().collect(Collectors.toList());
     }
 
     public List<Order> findByUserIdOrderByCreatedAtDesc(String userId) {
-        return orderTable.scan().items().stream()
-                .filter(order -> userId.equals(order.getUserId()))
+        return findByUserId(userId).stream()
                 .sorted(Comparator.comparing(Order::getCreatedAt).reversed())
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Scans one segment of a parallel scan. Callers run all {@code totalSegments} segments concurrently.
+     */
+    public Stream<Order> scanSegment(int segment, int totalSegments) {
+        return orderTable.scan(ScanEnhancedRequest.builder()
+                        .segment(segment)
+                        .totalSegments(totalSegments)
+                        .build())
+                .items().stream();
+    }
+
+    /**
+     * Scans one segment of the hot table for orders created before {@code cutoff}. The
+     * filter runs server-side, so only archival candidates are transferred.
+     */
+    public Stream<Order> scanSegmentCreatedBefore(int segment, int totalSegments, long cutoff) {
+        return orderTable.scan(ScanEnhancedRequest.builder()
+                        .segment(segment)
+                        .totalSegments(totalSegments)
+                        .filterExpression(Expression.builder()
+                                .expression("createdAt < :cutoff")
+                                .putExpressionValue(":cutoff", AttributeValue.fromN(Long.toString(cutoff)))
+                                .build())
+                        .build())
+                .items().stream();
+    }
+
+    /**
+     * Removes an archived order from the hot table, unless its status changed since it was
+     * archived; a hot copy that was updated meanwhile stays and shadows the archived one.
+     * Not published to the change feed, since the order still exists.
+     */
+    public boolean deleteArchived(Order order) {
+        try {
+            orderTable.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(order.getId()).build())
+                    .conditionExpression(statusIs(order.getStatus()))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a status change, together with its outbox event if there is one, provided the
+     * stored status is still {@code previousStatus}. Returns false if a concurrent update got
+     * there first. An order found only in the archive is written back to the hot table.
+     */
+    public boolean saveStatusChange(Order order, Order.OrderStatus previousStatus, OutboxEvent event) {
+        Expression unchanged = Expression.join(Expression.builder()
+                        .expression("attribute_not_exists(#id)")
+                        .putExpressionName("#id", "id")
+                        .build(),
+                statusIs(previousStatus), " OR ");
+        try {
+            if (event == null) {
+                orderTable.putItem(PutItemEnhancedRequest.builder(Order.class)
+                        .item(order)
+                        .conditionExpression(unchanged)
+                        .build());
+            } else {
+                TransactWriteItemsEnhancedRequest.Builder transaction = TransactWriteItemsEnhancedRequest.builder()
+                        .addPutItem(orderTable, TransactPutItemEnhancedRequest.builder(Order.class)
+                                .item(order)
+                                .conditionExpression(unchanged)
+                                .build());
+                outboxRepository.addTo(transaction, event);
+                enhancedClient.transactWriteItems(transaction.build());
+            }
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } catch (TransactionCanceledException e) {
+            if (e.cancellationReasons().stream().anyMatch(reason -> "ConditionalCheckFailed".equals(reason.code()))) {
+                return false;
+            }
+            throw e;
+        }
+        publishSaved(order);
+        return true;
+    }
+
+    private static Expression statusIs(Order.OrderStatus status) {
+        return status == null
+                ? Expression.builder()
+                        .expression("attribute_not_exists(#status)")
+                        .putExpressionName("#status", "status")
+                        .build()
+                : Expression.builder()
+                        .expression("#status = :status")
+                        .putExpressionName("#status", "status")
+                        .putExpressionValue(":status", AttributeValue.fromS(status.name()))
+                        .build();
+    }
+
     public void deleteById(String id) {
         orderTable.deleteItem(Key.builder().partitionValue(id).build());
+        changeFeed.publish(ChangeRecord.EntityType.ORDER, id, ChangeRecord.Operation.DELETE);
+    }
+
+    /**
+     * Publishes the save with the status written, so each status an order passes through
+     * reaches listeners even if the next change lands before they look.
+     */
+    private void publishSaved(Order order) {
+        changeFeed.publish(ChangeRecord.EntityType.ORDER, order.getId(), ChangeRecord.Operation.SAVE,
+                order.getUserId(), order.getStatus() != null ? order.getStatus().name() : null);
     }
 }
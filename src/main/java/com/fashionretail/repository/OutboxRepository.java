@@ -0,0 +1,151 @@
+package com.fashionretail.repository;
+
+import com.fashionretail.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Pending outbox events and the dead-letter store for events that exhausted their retries.
+ * Events are written in the same transaction as the aggregate they describe (see
+ * {@link OrderRepository#saveWithEvent}).
+ */
+@Repository
+public class OutboxRepository {
+
+    private final DynamoDbTable<OutboxEvent> outboxTable;
+    private final DynamoDbIndex<OutboxEvent> dueIndex;
+    private final DynamoDbTable<OutboxEvent> deadLetterTable;
+    private final DynamoDbEnhancedClient enhancedClient;
+
+    public OutboxRepository(@Qualifier("outboxTable") DynamoDbTable<OutboxEvent> outboxTable,
+                            @Qualifier("outboxDeadLetterTable") DynamoDbTable<OutboxEvent> deadLetterTable,
+                            DynamoDbEnhancedClient enhancedClient) {
+        this.outboxTable = outboxTable;
+        this.dueIndex = outboxTable.index(OutboxEvent.DUE_INDEX);
+        this.deadLetterTable = deadLetterTable;
+        this.enhancedClient = enhancedClient;
+    }
+
+    /**
+     * Adds the put of {@code event} to a transaction that writes its aggregate.
+     */
+    public void addTo(TransactWriteItemsEnhancedRequest.Builder transaction, OutboxEvent event) {
+        transaction.addPutItem(outboxTable, event);
+    }
+
+    /**
+     * Events of {@code shard} that are due at {@code now}, earliest due first, read lazily
+     * {@code pageSize} at a time. Reads only due events, however many are pending or leased.
+     * The index is eventually consistent: an event claimed a moment ago may still show up,
+     * and its claim then fails on the {@link #replace} condition.
+     */
+    public Stream<OutboxEvent> findDue(int shard, long now, int pageSize) {
+        return dueIndex.query(QueryEnhancedRequest.builder()
+                        .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
+                                .partitionValue(shard)
+                                .sortValue(now)
+                                .build()))
+                        .limit(pageSize)
+                        .build())
+                .stream()
+                .flatMap(page -> page.items().stream());
+    }
+
+    /**
+     * The oldest pending event of {@code shard}, due or not.
+     */
+    public Optional<OutboxEvent> findOldest(int shard) {
+        return outboxTable.query(QueryEnhancedRequest.builder()
+                        .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(shard).build()))
+                        .limit(1)
+                        .build())
+                .items().stream()
+                .findFirst();
+    }
+
+    /**
+     * Writes {@code event} if it still has the {@code availableAt} the caller last saw, i.e.
+     * nobody else claimed or rescheduled it meanwhile. Used both to claim an event and to
+     * release a claim.
+     */
+    public boolean replace(OutboxEvent event, long expectedAvailableAt) {
+        try {
+            outboxTable.putItem(PutItemEnhancedRequest.builder(OutboxEvent.class)
+                    .item(event)
+                    .conditionExpression(Expression.builder()
+                            .expression("availableAt = :expected")
+                            .putExpressionValue(":expected", AttributeValue.fromN(Long.toString(expectedAvailableAt)))
+                            .build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    public void delete(OutboxEvent event) {
+        outboxTable.deleteItem(key(event));
+    }
+
+    /**
+     * Moves {@code event} from the outbox to the dead-letter store in one transaction.
+     */
+    public void deadLetter(OutboxEvent event) {
+        enhancedClient.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                .addPutItem(deadLetterTable, event)
+                .addDeleteItem(outboxTable, key(event))
+                .build());
+    }
+
+    /**
+     * Up to {@code limit} dead letters, from a single scan page: the table is never read in full.
+     */
+    public List<OutboxEvent> findDeadLetters(int limit) {
+        return deadLetterTable.scan(ScanEnhancedRequest.builder().limit(limit).build()).stream()
+                .findFirst()
+                .map(Page::items)
+                .orElse(List.of());
+    }
+
+    /**
+     * Moves a dead-lettered event back to the outbox with a fresh retry budget. Returns false
+     * if there is no such dead letter.
+     */
+    public boolean requeue(int shard, String eventId, long now) {
+        Optional<OutboxEvent> deadLetter = Optional.ofNullable(deadLetterTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(shard).sortValue(eventId).build())
+                .consistentRead(true)
+                .build()));
+        deadLetter.ifPresent(event -> {
+            event.setAttempts(0);
+            event.setAvailableAt(now);
+            enhancedClient.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                    .addPutItem(outboxTable, event)
+                    .addDeleteItem(deadLetterTable, key(event))
+                    .build());
+        });
+        return deadLetter.isPresent();
+    }
+
+    private static Key key(OutboxEvent event) {
+        return Key.builder().partitionValue(event.getShard()).sortValue(event.getEventId()).build();
+    }
+}
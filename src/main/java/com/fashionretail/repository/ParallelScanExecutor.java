@@ -0,0 +1,203 @@
+package com.fashionretail.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs DynamoDB parallel scans on a shared, bounded worker pool and hands the items to a
+ * single consumer through a bounded queue. Workers block when the consumer falls behind, so
+ * memory use stays constant no matter how large the table is.
+ * <p>
+ * A scan uses at most one worker per segment and never more segments than there are workers.
+ * It reserves its workers before submitting anything, so concurrent scans wait their turn
+ * instead of overflowing the pool. Segments cannot run on the caller: it is the consumer,
+ * and would block on the full item queue. When the consumer stops, whether it is done, failed
+ * or has delivered {@code maxItems}, workers stop writing to the queue and return to the pool.
+ */
+@Component
+public class ParallelScanExecutor {
+
+    private static final Object END_OF_SEGMENT = new Object();
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore idleWorkers;
+    private final int queueCapacity;
+    private final long acquireTimeoutMillis;
+
+    public ParallelScanExecutor(@Value("${scan.max-workers:0}") int maxWorkers,
+                                @Value("${scan.queue-capacity:1000}") int queueCapacity,
+                                @Value("${scan.acquire-timeout-ms:60000}") long acquireTimeoutMillis) {
+        int workers = maxWorkers > 0 ? maxWorkers : Runtime.getRuntime().availableProcessors() * 2;
+        this.idleWorkers = new Semaphore(workers, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workers * 8),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "parallel-scan-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxWorkers() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Limits a requested segment count to what one scan may use: 1 to {@link #getMaxWorkers()}.
+     */
+    public int segmentsFor(int requested) {
+        return Math.max(1, Math.min(requested, getMaxWorkers()));
+    }
+
+    /**
+     * Scans all segments concurrently and passes every item to {@code sink} on the calling
+     * thread. {@code requestedSegments} is limited by {@link #segmentsFor}. Waits up to
+     * {@code scan.acquire-timeout-ms} for other scans to free workers. Returns the number of
+     * items delivered.
+     */
+    public <T> long scan(int requestedSegments, SegmentScanner<T> scanner, ItemSink<T> sink) throws Exception {
+        return scan(requestedSegments, scanner, sink, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #scan(int, SegmentScanner, ItemSink)}, but stops once {@code maxItems} items
+     * have been delivered. The remaining segments are abandoned, not read to the end.
+     */
+    public <T> long scan(int requestedSegments, SegmentScanner<T> scanner, ItemSink<T> sink,
+                         long maxItems) throws Exception {
+        int totalSegments = segmentsFor(requestedSegments);
+        if (!idleWorkers.tryAcquire(totalSegments, acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new RejectedExecutionException("All scan workers are busy with other scans");
+        }
+        try {
+            return runScan(totalSegments, scanner, sink, maxItems);
+        } finally {
+            idleWorkers.release(totalSegments);
+        }
+    }
+
+    private <T> long runScan(int totalSegments, SegmentScanner<T> scanner, ItemSink<T> sink,
+                             long maxItems) throws Exception {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean abandoned = new AtomicBoolean();
+        List<Future<?>> workers = new ArrayList<>(totalSegments);
+        long delivered = 0;
+        try {
+            for (int segment = 0; segment < totalSegments; segment++) {
+                int current = segment;
+                workers.add(executor.submit(() -> {
+                    try (Stream<T> items = scanner.scan(current, totalSegments)) {
+                        for (T item : (Iterable<T>) items::iterator) {
+                            put(queue, item, abandoned);
+                        }
+                    } catch (RuntimeException e) {
+                        // Ends the scan now rather than once the other segments are done
+                        put(queue, new SegmentFailure(e), abandoned);
+                        throw e;
+                    } finally {
+                        put(queue, END_OF_SEGMENT, abandoned);
+                    }
+                    return null;
+                }));
+            }
+
+            int finished = 0;
+            while (finished < totalSegments && delivered < maxItems) {
+                Object next = queue.poll(1, TimeUnit.SECONDS);
+                if (next == null) {
+                    failFast(workers);
+                } else if (next == END_OF_SEGMENT) {
+                    finished++;
+                } else if (next instanceof SegmentFailure failure) {
+                    throw failure.cause();
+                } else {
+                    @SuppressWarnings("unchecked")
+                    T item = (T) next;
+                    sink.accept(item);
+                    delivered++;
+                }
+            }
+            if (finished == totalSegments) {
+                for (Future<?> worker : workers) {
+                    unwrap(worker);
+                }
+            }
+            return delivered;
+        } finally {
+            // Stopped early or failed: no one takes from the queue any more, so workers must
+            // not wait for space in it. The flag also covers a worker whose interrupt was
+            // swallowed by the SDK.
+            abandoned.set(true);
+            workers.forEach(worker -> worker.cancel(true));
+            queue.clear();
+        }
+    }
+
+    /**
+     * Waits for space in {@code queue}, giving up as soon as the consumer has abandoned the scan.
+     */
+    private static void put(BlockingQueue<Object> queue, Object item, AtomicBoolean abandoned)
+            throws InterruptedException {
+        do {
+            if (abandoned.get()) {
+                throw new CancellationException("Scan abandoned by its consumer");
+            }
+        } while (!queue.offer(item, 100, TimeUnit.MILLISECONDS));
+    }
+
+    private static void failFast(List<Future<?>> workers) throws Exception {
+        for (Future<?> worker : workers) {
+            if (worker.isDone()) {
+                unwrap(worker);
+            }
+        }
+    }
+
+    private static void unwrap(Future<?> worker) throws Exception {
+        try {
+            worker.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record SegmentFailure(RuntimeException cause) {
+    }
+
+    @FunctionalInterface
+    public interface SegmentScanner<T> {
+        Stream<T> scan(int segment, int totalSegments);
+    }
+
+    @FunctionalInterface
+    public interface ItemSink<T> {
+        void accept(T item) throws Exception;
+    }
+}
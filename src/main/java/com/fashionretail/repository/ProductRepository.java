@@ -1,29 +1,60 @@
 package com.fashionretail.repository;
 
+import com.fashionretail.changefeed.ChangeFeedPublisher;
+import com.fashionretail.model.ChangeRecord;
 import com.fashionretail.model.Product;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 public class ProductRepository {
 
     private final DynamoDbTable<Product> productTable;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final ChangeFeedPublisher changeFeed;
 
-    public ProductRepository(DynamoDbTable<Product> productTable) {
+    public ProductRepository(DynamoDbTable<Product> productTable, DynamoDbEnhancedClient enhancedClient,
+                             ChangeFeedPublisher changeFeed) {
         this.productTable = productTable;
+        this.enhancedClient = enhancedClient;
+        this.changeFeed = changeFeed;
     }
 
     public Product save(Product product) {
         product.onCreate();
         productTable.putItem(product);
+        changeFeed.publish(ChangeRecord.EntityType.PRODUCT, product.getId(), ChangeRecord.Operation.SAVE);
         return product;
     }
 
+    /**
+     * Writes up to 25 products with a single BatchWriteItem call and returns the items DynamoDB
+     * did not process, which the caller is expected to retry. Bulk writes are not published to
+     * the change feed; remote product caches pick them up when their entries expire.
+     */
+    public List<Product> saveBatch(List<Product> products) {
+        WriteBatch.Builder<Product> batch = WriteBatch.builder(Product.class).mappedTableResource(productTable);
+        products.forEach(product -> {
+            product.onCreate();
+            batch.addPutItem(product);
+        });
+        return enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                        .addWriteBatch(batch.build())
+                        .build())
+                .unprocessedPutItemsForTable(productTable);
+    }
+
     public Optional<Product> findById(String id) {
         Product product = productTable.getItem(Key.builder().partitionValue(id).build());
         return Optional.ofNullable(product);
@@ -51,7 +82,30 @@ public class ProductRepository {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Reads a single scan page of at most {@code limit} products: one Scan call, however large
+     * the table is.
+     */
+    public List<Product> findFirstPage(int limit) {
+        return productTable.scan(ScanEnhancedRequest.builder().limit(limit).build()).stream()
+                .findFirst()
+                .map(Page::items)
+                .orElse(List.of());
+    }
+
+    /**
+     * Scans one segment of a parallel scan. Callers run all {@code totalSegments} segments concurrently.
+     */
+    public Stream<Product> scanSegment(int segment, int totalSegments) {
+        return productTable.scan(ScanEnhancedRequest.builder()
+                        .segment(segment)
+                        .totalSegments(totalSegments)
+                        .build())
+                .items().stream();
+    }
+
     public void deleteById(String id) {
         productTable.deleteItem(Key.builder().partitionValue(id).build());
+        changeFeed.publish(ChangeRecord.EntityType.PRODUCT, id, ChangeRecord.Operation.DELETE);
     }
 }
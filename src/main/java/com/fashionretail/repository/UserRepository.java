@@ -1,24 +1,118 @@
 package com.fashionretail.repository;
 
+import com.fashionretail.changefeed.ChangeFeedPublisher;
+import com.fashionretail.model.ChangeRecord;
 import com.fashionretail.model.User;
+import com.fashionretail.model.UserEmail;
+import com.fashionretail.util.ScalableBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.GetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Users, plus an in-memory scalable Bloom filter of registered emails. The filter answers
+ * "definitely not taken" for most registrations without touching DynamoDB; possible hits are
+ * confirmed against the UserEmail markers, and the transactional marker write in
+ * {@link #create} is what actually enforces uniqueness, including across nodes.
+ */
+@Slf4j
 @Repository
 public class UserRepository {
 
+    private static final Expression EMAIL_NOT_TAKEN = Expression.builder()
+            .expression("attribute_not_exists(email)")
+            .build();
+
     private final DynamoDbTable<User> userTable;
+    private final DynamoDbTable<UserEmail> userEmailTable;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final ChangeFeedPublisher changeFeed;
+    private final ParallelScanExecutor scanExecutor;
+    private final ScalableBloomFilter emailFilter;
+    private final int bootstrapSegments;
+    private final Counter definitelyNew;
+    private final Counter confirmedTaken;
+    private final Counter falsePositives;
+    private volatile boolean filterReady;
 
-    public UserRepository(DynamoDbTable<User> userTable) {
+    public UserRepository(DynamoDbTable<User> userTable,
+                          DynamoDbTable<UserEmail> userEmailTable,
+                          DynamoDbEnhancedClient enhancedClient,
+                          ChangeFeedPublisher changeFeed,
+                          ParallelScanExecutor scanExecutor,
+                          @Value("${users.email-filter.expected-users:100000}") int expectedUsers,
+                          @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${users.email-filter.bootstrap-segments:4}") int bootstrapSegments,
+                          MeterRegistry meterRegistry) {
         this.userTable = userTable;
+        this.userEmailTable = userEmailTable;
+        this.enhancedClient = enhancedClient;
+        this.changeFeed = changeFeed;
+        this.scanExecutor = scanExecutor;
+        this.emailFilter = new ScalableBloomFilter(expectedUsers, falsePositiveRate);
+        this.bootstrapSegments = bootstrapSegments;
+        this.definitelyNew = meterRegistry.counter("users.email.filter.checks", "result", "definitely-new");
+        this.confirmedTaken = meterRegistry.counter("users.email.filter.checks", "result", "taken");
+        this.falsePositives = meterRegistry.counter("users.email.filter.checks", "result", "false-positive");
+        meterRegistry.gauge("users.email.filter.memory", emailFilter, ScalableBloomFilter::memoryBytes);
+        meterRegistry.gauge("users.email.filter.size", emailFilter, ScalableBloomFilter::size);
+        meterRegistry.gauge("users.email.filter.fpp.expected", emailFilter,
+                ScalableBloomFilter::expectedFalsePositiveRate);
+        meterRegistry.gauge("users.email.filter.fpp.observed", this, UserRepository::observedFalsePositiveRate);
+    }
+
+    /**
+     * Inserts a new user together with its UserEmail marker in one transaction. Fails with
+     * "Email already exists" if another registration claimed the email first.
+     */
+    public User create(User user) {
+        user.onCreate();
+        try {
+            enhancedClient.transactWriteItems(TransactWriteItemsEnhancedRequest.builder()
+                    .addPutItem(userEmailTable, TransactPutItemEnhancedRequest.builder(UserEmail.class)
+                            .item(new UserEmail(user.getEmail(), user.getId()))
+                            .conditionExpression(EMAIL_NOT_TAKEN)
+                            .build())
+                    .addPutItem(userTable, user)
+                    .build());
+        } catch (TransactionCanceledException e) {
+            if (e.cancellationReasons().stream().map(CancellationReason::code)
+                    .anyMatch("ConditionalCheckFailed"::equals)) {
+                emailFilter.put(user.getEmail());
+                throw new RuntimeException("Email already exists");
+            }
+            throw e;
+        }
+        emailFilter.put(user.getEmail());
+        changeFeed.publish(ChangeRecord.EntityType.USER, user.getId(), ChangeRecord.Operation.SAVE);
+        return user;
     }
 
     public User save(User user) {
         user.onCreate();
         userTable.putItem(user);
+        if (user.getEmail() != null) {
+            emailFilter.put(user.getEmail());
+        }
+        changeFeed.publish(ChangeRecord.EntityType.USER, user.getId(), ChangeRecord.Operation.SAVE);
         return user;
     }
 
@@ -35,10 +129,93 @@ public class UserRepository {
     }
 
     public Boolean existsByEmail(String email) {
-        return findByEmail(email).isPresent();
+        if (!filterReady) {
+            return emailTaken(email);
+        }
+        if (!emailFilter.mightContain(email)) {
+            definitelyNew.increment();
+            return false;
+        }
+        boolean taken = emailTaken(email);
+        (taken ? confirmedTaken : falsePositives).increment();
+        return taken;
+    }
+
+    public Stream<User> scanSegment(int segment, int totalSegments) {
+        return userTable.scan(ScanEnhancedRequest.builder()
+                        .segment(segment)
+                        .totalSegments(totalSegments)
+                        .build())
+                .items().stream();
     }
 
     public void deleteById(String id) {
-        userTable.deleteItem(Key.builder().partitionValue(id).build());
+        User user = userTable.deleteItem(Key.builder().partitionValue(id).build());
+        // The filter keeps the email; a later registration just takes the authoritative path
+        if (user != null && user.getEmail() != null) {
+            userEmailTable.deleteItem(Key.builder().partitionValue(user.getEmail()).build());
+        }
+        changeFeed.publish(ChangeRecord.EntityType.USER, id, ChangeRecord.Operation.DELETE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildEmailFilterAsync() {
+        Thread thread = new Thread(this::buildEmailFilter, "email-filter-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads every registered email into the filter with a parallel segmented scan. Until this
+     * completes, {@link #existsByEmail} always takes the authoritative path.
+     */
+    public void buildEmailFilter() {
+        long start = System.currentTimeMillis();
+        try {
+            long users = scanExecutor.scan(bootstrapSegments, this::scanSegment, user -> {
+                if (user.getEmail() != null) {
+                    emailFilter.put(user.getEmail());
+                }
+            });
+            filterReady = true;
+            log.info("Email filter built from {} users in {} ms ({} bytes, expected false-positive rate {})",
+                    users, System.currentTimeMillis() - start, emailFilter.memoryBytes(),
+                    emailFilter.expectedFalsePositiveRate());
+        } catch (Exception e) {
+            log.warn("Email filter bootstrap failed; registrations will check storage directly", e);
+        }
+    }
+
+    /**
+     * Authoritative check: the UserEmail marker, or a table scan for users registered before
+     * markers existed. A legacy match is backfilled so the next check is a point read.
+     */
+    private boolean emailTaken(String email) {
+        UserEmail marker = userEmailTable.getItem(GetItemEnhancedRequest.builder()
+                .key(Key.builder().partitionValue(email).build())
+                .consistentRead(true)
+                .build());
+        if (marker != null) {
+            return true;
+        }
+        Optional<User> legacy = findByEmail(email);
+        legacy.ifPresent(this::backfillMarker);
+        return legacy.isPresent();
+    }
+
+    private void backfillMarker(User user) {
+        try {
+            userEmailTable.putItem(PutItemEnhancedRequest.builder(UserEmail.class)
+                    .item(new UserEmail(user.getEmail(), user.getId()))
+                    .conditionExpression(EMAIL_NOT_TAKEN)
+                    .build());
+        } catch (RuntimeException e) {
+            log.debug("Could not backfill email marker for user {}", user.getId(), e);
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = definitelyNew.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
     }
 }
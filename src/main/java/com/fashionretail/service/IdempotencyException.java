@@ -0,0 +1,28 @@
+package com.fashionretail.service;
+
+/**
+ * A request that cannot be served under its Idempotency-Key. These are client errors: the
+ * controller maps {@link Reason} to 400, 409 or 422 so that clients do not retry them blindly.
+ */
+public class IdempotencyException extends RuntimeException {
+
+    public enum Reason {
+        // Missing, blank or too long
+        INVALID_KEY,
+        // Another request with the key has not finished yet; retry later
+        IN_PROGRESS,
+        // The key was already used for a request with a different payload
+        PAYLOAD_MISMATCH
+    }
+
+    private final Reason reason;
+
+    public IdempotencyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,286 @@
+package com.fashionretail.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.model.IdempotencyRecord;
+import com.fashionretail.repository.IdempotencyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action at most once per Idempotency-Key. The first request claims the key with a
+ * conditional put and stores its response; duplicates on the same node wait on the in-flight
+ * result, and later duplicates (on any node) replay the stored response from a local LRU or
+ * the Idempotency table without running the action again. A duplicate that finds the key
+ * held by another node fails fast with {@link IdempotencyException.Reason#IN_PROGRESS}
+ * rather than polling the table.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int STORE_ATTEMPTS = 3;
+    private static final long STORE_BACKOFF_MILLIS = 50;
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+
+    private record Stored(String fingerprint, String body, long expiresAt) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<String> body) {
+    }
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long ttlMillis;
+    private final long lockMillis;
+    private final long waitMillis;
+    private final Map<String, Stored> recent;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.lock-timeout-seconds:120}") long lockSeconds,
+                              @Value("${idempotency.wait-timeout-seconds:10}") long waitSeconds,
+                              @Value("${idempotency.local-cache-size:10000}") int localCacheSize) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.lockMillis = TimeUnit.SECONDS.toMillis(lockSeconds);
+        this.waitMillis = TimeUnit.SECONDS.toMillis(waitSeconds);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > localCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key already ran within the TTL, in
+     * which case that request's result is returned with {@code replayed = true}. {@code scope}
+     * keeps keys of different callers apart; {@code payload} must describe the request so a
+     * key reused for a different request is rejected.
+     */
+    public <T> Result<T> execute(String scope, String key, String payload, Class<T> type, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IdempotencyException(IdempotencyException.Reason.INVALID_KEY,
+                    "Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String fingerprint = sha256(payload);
+
+        Stored stored = recentResult(id);
+        if (stored != null) {
+            checkFingerprint(stored.fingerprint(), fingerprint);
+            count("replayed-local");
+            return new Result<>(read(stored.body(), type), true);
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(id, mine);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint(), fingerprint);
+            count("joined-in-flight");
+            return new Result<>(read(await(existing.body()), type), true);
+        }
+
+        String ownerToken = UUID.randomUUID().toString();
+        try {
+            String replay = claim(id, fingerprint, ownerToken);
+            if (replay != null) {
+                remember(id, fingerprint, replay);
+                mine.body().complete(replay);
+                count("replayed-stored");
+                return new Result<>(read(replay, type), true);
+            }
+
+            T value;
+            try {
+                value = action.get();
+            } catch (RuntimeException e) {
+                // Release the key so the client can retry a failed request
+                try {
+                    idempotencyRepository.release(id, ownerToken);
+                } catch (RuntimeException releaseFailure) {
+                    e.addSuppressed(releaseFailure);
+                }
+                throw e;
+            }
+            String body = write(value);
+            storeResponse(id, fingerprint, body, ownerToken);
+            remember(id, fingerprint, body);
+            mine.body().complete(body);
+            count("executed");
+            return new Result<>(value, false);
+        } catch (RuntimeException e) {
+            mine.body().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * Replaces the claim with the response. Until that succeeds a duplicate on another node, or
+     * any duplicate once the lock expires, would take the key over and run the action again,
+     * so the write is retried, and if it still fails the claim is held for the whole TTL:
+     * duplicates then get IN_PROGRESS instead of a second order. This node replays from its LRU.
+     */
+    private void storeResponse(String id, String fingerprint, String body, String ownerToken) {
+        long now = System.currentTimeMillis();
+        long expiresAt = (now + ttlMillis) / 1000;
+        IdempotencyRecord completed = new IdempotencyRecord(id, fingerprint, IdempotencyRecord.Status.COMPLETED,
+                body, now, ownerToken, now, expiresAt);
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= STORE_ATTEMPTS; attempt++) {
+            try {
+                if (!idempotencyRepository.replaceClaim(completed, ownerToken)) {
+                    // Only possible if the action outlived the lock
+                    count("taken-over");
+                    log.warn("Idempotency-Key {} was taken over while its request was running", id);
+                }
+                return;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            try {
+                Thread.sleep(STORE_BACKOFF_MILLIS * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.warn("Could not store response for Idempotency-Key {}, holding its claim until it expires", id, failure);
+        try {
+            idempotencyRepository.replaceClaim(new IdempotencyRecord(id, fingerprint,
+                    IdempotencyRecord.Status.IN_PROGRESS, null, now + ttlMillis, ownerToken, now, expiresAt), ownerToken);
+        } catch (RuntimeException e) {
+            count("unprotected");
+            log.error("Could not hold the claim on Idempotency-Key {}; a retry after the lock expires "
+                    + "may run the request again", id, e);
+        }
+    }
+
+    /**
+     * Returns null once this node owns the key, or the stored response if another request
+     * completed it. A claim whose owner's lock expired is taken over. If another node holds
+     * the key, fails right away: the client retries later instead of this node polling
+     * DynamoDB, which matters most during the slowdowns that cause duplicate requests.
+     */
+    private String claim(String id, String fingerprint, String ownerToken) {
+        // A second attempt covers a claim released between the put and the read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long now = System.currentTimeMillis();
+            IdempotencyRecord claim = new IdempotencyRecord(id, fingerprint, IdempotencyRecord.Status.IN_PROGRESS,
+                    null, now + lockMillis, ownerToken, now, (now + ttlMillis) / 1000);
+            if (idempotencyRepository.tryAcquire(claim, now)) {
+                return null;
+            }
+            IdempotencyRecord record = idempotencyRepository.findById(id).orElse(null);
+            if (record != null) {
+                checkFingerprint(record.getFingerprint(), fingerprint);
+                if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    return record.getResponseBody();
+                }
+                break;
+            }
+        }
+        count("still-in-progress");
+        throw new IdempotencyException(IdempotencyException.Reason.IN_PROGRESS,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    private String await(CompletableFuture<String> body) {
+        try {
+            return body.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            count("still-in-progress");
+            throw new IdempotencyException(IdempotencyException.Reason.IN_PROGRESS,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Idempotency-Key", e);
+        }
+    }
+
+    private Stored recentResult(String id) {
+        synchronized (recent) {
+            Stored stored = recent.get(id);
+            if (stored != null && stored.expiresAt() <= System.currentTimeMillis()) {
+                recent.remove(id);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private void remember(String id, String fingerprint, String body) {
+        synchronized (recent) {
+            recent.put(id, new Stored(fingerprint, body, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyException(IdempotencyException.Reason.PAYLOAD_MISMATCH,
+                    "Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+
+    private static String sha256(String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(payload).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.fashionretail.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Resized, re-encoded derivatives of the product images under {@code static/images}.
+ * Derivatives are generated once on a bounded worker pool and kept in a content-addressed
+ * disk cache: the file name is a hash of the original bytes and the encoding settings, so a
+ * changed original or setting produces a new file and never a stale one. The cache is capped
+ * at {@code image.cache.max-bytes}, evicting least recently served derivatives first.
+ */
+@Slf4j
+@Service
+public class ImageService {
+
+    // Bump when the resize or encode pipeline changes, to invalidate every cached derivative
+    private static final int PIPELINE_VERSION = 1;
+    private static final String SOURCE_PREFIX = "/images/";
+
+    public enum Size {
+        THUMBNAIL(160),
+        CARD(400),
+        DETAIL(900);
+
+        private final int width;
+
+        Size(int width) {
+            this.width = width;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+    }
+
+    public record Derivative(Path file, String version, String contentType, long length) {
+    }
+
+    private record Source(byte[] bytes, String hash) {
+    }
+
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+    private final Path cacheDirectory;
+    private final long maxCacheBytes;
+    private final float jpegQuality;
+    private final ThreadPoolExecutor executor;
+    private final Timer resizeTimer;
+    private final Map<String, Source> sources = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Derivative>> inFlight = new ConcurrentHashMap<>();
+    // Cached file name -> size in bytes, in access order for eviction
+    private final LinkedHashMap<String, Long> cached = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public ImageService(ResourceLoader resourceLoader,
+                        MeterRegistry meterRegistry,
+                        @Value("${image.cache.directory:./data/image-cache}") String cacheDirectory,
+                        @Value("${image.cache.max-bytes:536870912}") long maxCacheBytes,
+                        @Value("${image.jpeg-quality:0.8}") float jpegQuality,
+                        @Value("${image.workers:2}") int workers,
+                        @Value("${image.queue-capacity:64}") int queueCapacity) throws IOException {
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry;
+        this.cacheDirectory = Path.of(cacheDirectory);
+        this.maxCacheBytes = maxCacheBytes;
+        this.jpegQuality = jpegQuality;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Resizing is CPU-bound; excess work is rejected rather than queued without bound
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.resizeTimer = meterRegistry.timer("image.resize");
+        meterRegistry.gauge("image.cache.bytes", cachedBytes);
+        meterRegistry.gauge("image.queue.size", executor, pool -> pool.getQueue().size());
+        loadCacheIndex();
+    }
+
+    /**
+     * True if {@code src} names an original that derivatives can be made from.
+     */
+    public boolean exists(String src) {
+        return isValidSource(src) && resource(src).exists();
+    }
+
+    /**
+     * The derivative of {@code src} at {@code size}, from the disk cache or generated on the
+     * worker pool. Fails with {@link RejectedExecutionException} when the pool is saturated.
+     */
+    public CompletableFuture<Derivative> getDerivative(String src, Size size) {
+        Source source = source(src);
+        String fileName = fileName(source, size);
+        Derivative hit = cachedDerivative(fileName);
+        if (hit != null) {
+            meterRegistry.counter("image.derivatives", "result", "hit").increment();
+            return CompletableFuture.completedFuture(hit);
+        }
+        CompletableFuture<Derivative> future = new CompletableFuture<>();
+        CompletableFuture<Derivative> existing = inFlight.putIfAbsent(fileName, future);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(generate(source, size, fileName));
+                    meterRegistry.counter("image.derivatives", "result", "generated").increment();
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(fileName, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(fileName, future);
+            meterRegistry.counter("image.derivatives", "result", "rejected").increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Generates all sizes of {@code src} in the background, e.g. when a product is created, so
+     * the first visitor gets a cache hit. Skipped when the pool is busy.
+     */
+    public void pregenerate(String src) {
+        if (src == null || !exists(src)) {
+            return;
+        }
+        for (Size size : Size.values()) {
+            getDerivative(src, size).exceptionally(e -> {
+                log.debug("Pregenerating {} of {} skipped: {}", size, src, e.toString());
+                return null;
+            });
+        }
+    }
+
+    private Derivative generate(Source source, Size size, String fileName) throws IOException {
+        long start = System.nanoTime();
+        Derivative raced = cachedDerivative(fileName);
+        if (raced != null) {
+            return raced;
+        }
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(source.bytes()));
+        if (original == null) {
+            throw new IOException("Unsupported image format");
+        }
+        // PNGs stay PNG to keep transparency; everything else becomes a JPEG
+        boolean png = isPng(source);
+        BufferedImage resized = resize(original, size.getWidth(), png && original.getColorModel().hasAlpha());
+        byte[] encoded = png ? encodePng(resized) : encodeJpeg(resized);
+
+        Files.createDirectories(cacheDirectory);
+        Path target = cacheDirectory.resolve(fileName);
+        Path temp = Files.createTempFile(cacheDirectory, fileName, ".tmp");
+        Files.write(temp, encoded);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        resizeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        synchronized (cached) {
+            Long previous = cached.put(fileName, (long) encoded.length);
+            cachedBytes.addAndGet(encoded.length - (previous != null ? previous : 0));
+        }
+        evictIfNeeded();
+        return new Derivative(target, versionOf(fileName), contentType(fileName), encoded.length);
+    }
+
+    /**
+     * Scales to {@code width} (never up), halving repeatedly first so large reductions keep
+     * detail that a single bilinear step would drop.
+     */
+    private static BufferedImage resize(BufferedImage image, int width, boolean alpha) {
+        int targetWidth = Math.min(width, image.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round((double) image.getHeight() * targetWidth / image.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                if (!alpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, w, h);
+                }
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, w, h, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    private Derivative cachedDerivative(String fileName) {
+        Long length;
+        synchronized (cached) {
+            length = cached.get(fileName);
+        }
+        if (length == null) {
+            return null;
+        }
+        Path file = cacheDirectory.resolve(fileName);
+        if (!Files.exists(file)) {
+            forget(fileName);
+            return null;
+        }
+        return new Derivative(file, versionOf(fileName), contentType(fileName), length);
+    }
+
+    private void evictIfNeeded() {
+        while (cachedBytes.get() > maxCacheBytes) {
+            String eldest;
+            synchronized (cached) {
+                Iterator<String> it = cached.keySet().iterator();
+                if (!it.hasNext()) {
+                    return;
+                }
+                eldest = it.next();
+            }
+            forget(eldest);
+            try {
+                Files.deleteIfExists(cacheDirectory.resolve(eldest));
+                meterRegistry.counter("image.cache.evictions").increment();
+            } catch (IOException e) {
+                log.warn("Failed to evict cached image {}", eldest, e);
+            }
+        }
+    }
+
+    private void forget(String fileName) {
+        synchronized (cached) {
+            Long length = cached.remove(fileName);
+            if (length != null) {
+                cachedBytes.addAndGet(-length);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the eviction order from the files already on disk, oldest first.
+     */
+    private void loadCacheIndex() throws IOException {
+        if (!Files.isDirectory(cacheDirectory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.list(cacheDirectory)) {
+            files = list.filter(Files::isRegularFile).toList();
+        }
+        files.stream()
+                .filter(file -> file.getFileName().toString().endsWith(".tmp"))
+                .forEach(file -> file.toFile().delete());
+        files.stream()
+                .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                .forEach(file -> {
+                    long length = file.toFile().length();
+                    synchronized (cached) {
+                        cached.put(file.getFileName().toString(), length);
+                    }
+                    cachedBytes.addAndGet(length);
+                });
+        evictIfNeeded();
+    }
+
+    private Source source(String src) {
+        if (!isValidSource(src)) {
+            throw new IllegalArgumentException("Invalid image source: " + src);
+        }
+        // Originals ship inside the application, so they cannot change while it runs
+        return sources.computeIfAbsent(src, path -> {
+            try (InputStream in = resource(path).getInputStream()) {
+                byte[] bytes = in.readAllBytes();
+                return new Source(bytes, sha256(bytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read image " + path, e);
+            }
+        });
+    }
+
+    private Resource resource(String src) {
+        return resourceLoader.getResource("classpath:/static" + src);
+    }
+
+    private static boolean isValidSource(String src) {
+        return src != null && src.startsWith(SOURCE_PREFIX) && !src.contains("..") && !src.contains("\\");
+    }
+
+    private String fileName(Source source, Size size) {
+        String key = sha256((source.hash() + ":" + size.getWidth() + ":" + jpegQuality + ":" + PIPELINE_VERSION)
+                .getBytes(StandardCharsets.UTF_8));
+        return key.substring(0, 32) + "-" + size.name().toLowerCase() + (isPng(source) ? ".png" : ".jpg");
+    }
+
+    private static boolean isPng(Source source) {
+        byte[] bytes = source.bytes();
+        return bytes.length > 4 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G';
+    }
+
+    private static String versionOf(String fileName) {
+        return fileName.substring(0, fileName.indexOf('-'));
+    }
+
+    private static String contentType(String fileName) {
+        return fileName.endsWith(".png") ? "image/png" : "image/jpeg";
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
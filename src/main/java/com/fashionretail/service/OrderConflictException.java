@@ -0,0 +1,11 @@
+package com.fashionretail.service;
+
+/**
+ * An order changed between being read and being written. The controller maps it to 409.
+ */
+public class OrderConflictException extends RuntimeException {
+
+    public OrderConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.fashionretail.service;
 
 import com.fashionretail.model.*;
+import com.fashionretail.outbox.OrderEvents;
+import com.fashionretail.outbox.OutboxDispatcher;
 import com.fashionretail.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,8 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final ProductService productService;
+    private final OrderEvents orderEvents;
+    private final OutboxDispatcher outboxDispatcher;
 
     public List<Order> getUserOrders(String userId) {
         return orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
@@ -44,6 +48,7 @@ public class OrderService {
                     OrderItem orderItem = new OrderItem();
                     orderItem.setProductId(product.getId());
                     orderItem.setProductName(product.getName());
+                    orderItem.setCategory(product.getCategory());
                     orderItem.setQuantity(cartItem.getQuantity());
                     orderItem.setPrice(cartItem.getPrice());
                     return orderItem;
@@ -57,15 +62,34 @@ public class OrderService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         order.setTotalAmount(totalAmount);
 
-        Order savedOrder = orderRepository.save(order);
-        cartService.clearCart(userId);
+        // Cart cleanup, sales analytics and recommendations run from the outbox
+        order.onCreate();
+        Order savedOrder = orderRepository.saveWithEvent(order, orderEvents.orderCreated(order));
+        outboxDispatcher.wakeUp();
 
         return savedOrder;
     }
 
     public Order updateOrderStatus(String orderId, Order.OrderStatus status) {
         Order order = getOrderById(orderId);
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+
+        // Sales analytics follow cancellations through the outbox, like checkouts
+        OutboxEvent event = null;
+        if (status == Order.OrderStatus.CANCELLED && previousStatus != Order.OrderStatus.CANCELLED) {
+            event = orderEvents.orderCancelled(order);
+        } else if (previousStatus == Order.OrderStatus.CANCELLED && status != Order.OrderStatus.CANCELLED) {
+            event = orderEvents.orderReinstated(order);
+        }
+        // Conditional on the status read above, so two concurrent cancellations cannot both
+        // emit an event and take the sales off twice
+        if (!orderRepository.saveStatusChange(order, previousStatus, event)) {
+            throw new OrderConflictException("Order " + orderId + " was updated concurrently; reload and retry");
+        }
+        if (event != null) {
+            outboxDispatcher.wakeUp();
+        }
+        return order;
     }
 }
@@ -0,0 +1,354 @@
+package com.fashionretail.service;
+
+import com.fashionretail.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes order status changes to the owning user's open Server-Sent Events connections.
+ * Connections are async requests, so an idle subscriber costs a socket and an emitter but no
+ * thread; sends run on a small sender pool. Each connection has its own short queue, drained
+ * by one sender task at a time, so a slow client only delays itself: when its queue is full
+ * the connection is closed and the client catches up through Last-Event-ID on reconnect.
+ * Change records carry the order's owner and status, so no order is read back.
+ * <p>
+ * Every node learns about status changes from the change feed (its own writes immediately,
+ * other nodes' writes when tailed) and keeps the last few events per user, so a client that
+ * reconnects to any node with {@code Last-Event-ID} gets what it missed. Event ids are built
+ * from the change record, so they are the same on every node. When the gap cannot be covered
+ * (too old, or from before this node started) the client gets a {@code resync} event and
+ * should reload its orders.
+ */
+@Slf4j
+@Service
+public class OrderStatusBroadcaster {
+
+    public static final String STATUS_EVENT = "order-status";
+    public static final String RESYNC_EVENT = "resync";
+
+    public record StatusEvent(String id, String orderId, Order.OrderStatus status,
+                              Order.OrderStatus previousStatus, long timestamp) {
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxConnections;
+    private final int maxPerUser;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final int replayPerUser;
+    private final long replayRetentionMillis;
+    private final int pendingPerConnection;
+    private final long startedAt = System.currentTimeMillis();
+    private final ThreadPoolExecutor sender;
+    private final Map<String, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    // Recent events per user, least recently updated user first; guarded by itself
+    private final Map<String, Deque<StatusEvent>> recent;
+    // Events up to this time may have been dropped from the replay buffer
+    private volatile long replayHorizon;
+
+    public OrderStatusBroadcaster(MeterRegistry meterRegistry,
+                                  @Value("${orders.stream.max-connections:20000}") int maxConnections,
+                                  @Value("${orders.stream.max-per-user:5}") int maxPerUser,
+                                  @Value("${orders.stream.timeout-ms:1800000}") long timeoutMillis,
+                                  @Value("${orders.stream.reconnect-ms:3000}") long reconnectMillis,
+                                  @Value("${orders.stream.replay.per-user:20}") int replayPerUser,
+                                  @Value("${orders.stream.replay.retention-ms:600000}") long replayRetentionMillis,
+                                  @Value("${orders.stream.replay.max-users:100000}") int replayMaxUsers,
+                                  @Value("${orders.stream.send-threads:2}") int sendThreads,
+                                  @Value("${orders.stream.send-queue-capacity:10000}") int sendQueueCapacity,
+                                  @Value("${orders.stream.pending-per-connection:32}") int pendingPerConnection) {
+        this.meterRegistry = meterRegistry;
+        this.maxConnections = maxConnections;
+        this.maxPerUser = maxPerUser;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.replayPerUser = replayPerUser;
+        this.replayRetentionMillis = replayRetentionMillis;
+        this.pendingPerConnection = pendingPerConnection;
+        this.replayHorizon = startedAt;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<StatusEvent>> eldest) {
+                if (size() <= replayMaxUsers) {
+                    return false;
+                }
+                StatusEvent newest = eldest.getValue().peekLast();
+                if (newest != null) {
+                    replayHorizon = Math.max(replayHorizon, newest.timestamp());
+                }
+                return true;
+            }
+        };
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("orders.stream.connections", connections);
+        meterRegistry.gauge("orders.stream.send.queue", sender, pool -> pool.getQueue().size());
+    }
+
+    /**
+     * Opens a stream for {@code userId}, first replaying events after {@code lastEventId}.
+     * Empty when this node is at its connection limit. If the user already has
+     * {@code max-per-user} streams open, the oldest one is closed.
+     */
+    public Optional<SseEmitter> subscribe(String userId, String lastEventId) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            meterRegistry.counter("orders.stream.rejected").increment();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, pendingPerConnection);
+        List<Subscriber> evicted = new ArrayList<>();
+        subscribers.compute(userId, (key, current) -> {
+            Deque<Subscriber> updated = current != null ? current : new ConcurrentLinkedDeque<>();
+            updated.addLast(subscriber);
+            while (updated.size() > maxPerUser) {
+                evicted.add(updated.pollFirst());
+            }
+            return updated;
+        });
+        evicted.forEach(stale -> {
+            connections.decrementAndGet();
+            stale.emitter().complete();
+        });
+        emitter.onCompletion(() -> unsubscribe(userId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(userId, subscriber));
+        emitter.onError(e -> unsubscribe(userId, subscriber));
+
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(reconnectMillis).comment("connected"));
+            replay(userId, lastEventId, emitter);
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Called for every saved order, local or from another node, with its owner and the status
+     * it was saved with. If the status changed, records and pushes the event off the caller's
+     * thread. A change dropped because the send queue is full moves the replay horizon past
+     * it, so clients that reconnect get a resync instead of silently missing it.
+     */
+    public void onOrderSaved(String orderId, String userId, Order.OrderStatus status, long timestamp) {
+        if (userId == null || status == null) {
+            return;
+        }
+        try {
+            sender.execute(() -> publish(orderId, userId, status, timestamp));
+        } catch (RejectedExecutionException e) {
+            synchronized (recent) {
+                replayHorizon = Math.max(replayHorizon, timestamp);
+            }
+            meterRegistry.counter("orders.stream.events", "outcome", "dropped").increment();
+            log.warn("Order stream send queue full; status change of order {} not pushed", orderId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-ms:15000}",
+            initialDelayString = "${orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(current -> current.forEach(subscriber ->
+                enqueue(subscriber, SseEmitter.event().comment("keepalive"))));
+        try {
+            sender.execute(this::pruneReplayBuffer);
+        } catch (RejectedExecutionException e) {
+            log.debug("Order stream send queue full; skipping replay buffer pruning");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(current -> current.forEach(subscriber -> subscriber.emitter().complete()));
+        sender.shutdownNow();
+    }
+
+    private void publish(String orderId, String userId, Order.OrderStatus status, long timestamp) {
+        StatusEvent event;
+        synchronized (recent) {
+            Deque<StatusEvent> events = recent.computeIfAbsent(userId, key -> new ArrayDeque<>());
+            Order.OrderStatus previous = null;
+            for (Iterator<StatusEvent> it = events.descendingIterator(); it.hasNext(); ) {
+                StatusEvent earlier = it.next();
+                if (earlier.orderId().equals(orderId)) {
+                    previous = earlier.status();
+                    break;
+                }
+            }
+            // Unchanged status, or an order that was just placed
+            if (status == previous || (previous == null && status == Order.OrderStatus.PENDING)) {
+                if (events.isEmpty()) {
+                    recent.remove(userId);
+                }
+                return;
+            }
+            event = new StatusEvent(String.format("%013d-%s-%s", timestamp, orderId, status),
+                    orderId, status, previous, timestamp);
+            events.addLast(event);
+            while (events.size() > replayPerUser) {
+                replayHorizon = Math.max(replayHorizon, events.pollFirst().timestamp());
+            }
+        }
+        Deque<Subscriber> current = subscribers.get(userId);
+        if (current != null) {
+            current.forEach(subscriber -> {
+                if (enqueue(subscriber, statusEvent(event))) {
+                    meterRegistry.counter("orders.stream.events", "outcome", "sent").increment();
+                }
+            });
+        }
+    }
+
+    private void replay(String userId, String lastEventId, SseEmitter emitter) throws IOException {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long since = timestampOf(lastEventId);
+        if (since < Math.max(replayHorizon, System.currentTimeMillis() - replayRetentionMillis)) {
+            meterRegistry.counter("orders.stream.resyncs").increment();
+            emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+            return;
+        }
+        List<StatusEvent> missed = new ArrayList<>();
+        synchronized (recent) {
+            Deque<StatusEvent> events = recent.get(userId);
+            if (events != null) {
+                events.stream().filter(event -> event.id().compareTo(lastEventId) > 0).forEach(missed::add);
+            }
+        }
+        for (StatusEvent event : missed) {
+            emitter.send(statusEvent(event));
+        }
+        meterRegistry.counter("orders.stream.replayed").increment(missed.size());
+    }
+
+    private void pruneReplayBuffer() {
+        long cutoff = System.currentTimeMillis() - replayRetentionMillis;
+        synchronized (recent) {
+            recent.values().removeIf(events -> {
+                while (!events.isEmpty() && events.peekFirst().timestamp() < cutoff) {
+                    events.pollFirst();
+                }
+                return events.isEmpty();
+            });
+        }
+    }
+
+    private void unsubscribe(String userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (key, current) -> {
+            if (current.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    /**
+     * Queues {@code event} for one connection and makes sure a sender task is draining it.
+     * A full queue means the client stopped reading: the connection is closed rather than
+     * letting it hold events (and a sender thread) for everybody else.
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.pending().offer(event)) {
+            meterRegistry.counter("orders.stream.stalled").increment();
+            subscriber.pending().clear();
+            subscriber.emitter().complete();
+            return false;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Stays queued; the next event or heartbeat tries again
+                subscriber.draining().set(false);
+            }
+        }
+        return true;
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder event = subscriber.pending().poll();
+            if (event == null) {
+                subscriber.draining().set(false);
+                // An event queued after the poll but before the flag was cleared
+                if (subscriber.pending().isEmpty() || !subscriber.draining().compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (!send(subscriber.emitter(), event)) {
+                subscriber.pending().clear();
+                return;
+            }
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder statusEvent(StatusEvent event) {
+        return SseEmitter.event().id(event.id()).name(STATUS_EVENT).data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completing triggers unsubscribe
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> pending,
+                              AtomicBoolean draining) {
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this(emitter, new ArrayBlockingQueue<>(capacity), new AtomicBoolean());
+        }
+    }
+
+    /**
+     * Event ids start with the 13-digit time of the change; anything unparseable is treated as
+     * too old to replay.
+     */
+    private static long timestampOf(String eventId) {
+        try {
+            return Long.parseLong(eventId.substring(0, Math.min(13, eventId.length())));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.fashionretail.service;
+
+import com.fashionretail.model.Product;
+import com.fashionretail.util.FrequencySketch;
+import com.fashionretail.util.HeavyHitters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of the Product table. Concurrent misses for the same id share a
+ * single in-flight load, and admission is frequency-aware so one-off reads cannot push out
+ * products that are actually hot.
+ */
+@Component
+public class ProductCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<Product>>> inFlight = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final long ttlMillis;
+    private final FrequencySketch sketch;
+    private final HeavyHitters<String> hotKeys;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter evictions;
+
+    public ProductCache(@Value("${product.cache.maximum-size:10000}") int maximumSize,
+                        @Value("${product.cache.ttl-ms:5000}") long ttlMillis,
+                        @Value("${product.cache.hot-keys:50}") int hotKeyCapacity,
+                        MeterRegistry meterRegistry) {
+        this.maximumSize = maximumSize;
+        this.ttlMillis = ttlMillis;
+        this.sketch = new FrequencySketch(maximumSize);
+        this.hotKeys = new HeavyHitters<>(hotKeyCapacity);
+        this.hits = meterRegistry.counter("product.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("product.cache.requests", "result", "miss");
+        this.coalesced = meterRegistry.counter("product.cache.coalesced");
+        this.evictions = meterRegistry.counter("product.cache.evictions");
+        meterRegistry.gauge("product.cache.size", entries, Map::size);
+    }
+
+    public Optional<Product> get(String id, Function<String, Optional<Product>> loader) {
+        sketch.increment(id);
+        hotKeys.tryOffer(id, 1);
+
+        Entry entry = entries.get(id);
+        if (entry != null && !entry.isExpired(System.currentTimeMillis())) {
+            hits.increment();
+            return Optional.of(copyOf(entry.product));
+        }
+        misses.increment();
+
+        CompletableFuture<Optional<Product>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Product>> existing = inFlight.putIfAbsent(id, load);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing).map(ProductCache::copyOf);
+        }
+
+        try {
+            Optional<Product> loaded = loader.apply(id);
+            // An invalidation during the load removes our future; don't cache what may be stale.
+            if (inFlight.remove(id, load)) {
+                loaded.ifPresent(product -> admit(id, copyOf(product), System.currentTimeMillis() + ttlMillis));
+            }
+            load.complete(loaded);
+            // Callers may modify what they get; the loaded instance is shared with waiters
+            return loaded.map(ProductCache::copyOf);
+        } catch (RuntimeException ex) {
+            inFlight.remove(id, load);
+            load.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public void put(Product product) {
+        put(product, ttlMillis);
+    }
+
+    /**
+     * Caches a product for {@code ttlMillis} instead of the configured TTL, e.g. so entries
+     * preloaded at startup are still there when the instance starts taking traffic.
+     */
+    public void put(Product product, long ttlMillis) {
+        if (product.getId() != null) {
+            admit(product.getId(), copyOf(product), System.currentTimeMillis() + ttlMillis);
+        }
+    }
+
+    public void invalidate(String id) {
+        inFlight.remove(id);
+        entries.remove(id);
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        entries.clear();
+    }
+
+    public List<HeavyHitters.Entry<String>> hotKeys(int limit) {
+        return hotKeys.top(limit);
+    }
+
+    private void admit(String id, Product product, long expiresAt) {
+        if (entries.size() >= maximumSize && !entries.containsKey(id)) {
+            String victim = selectVictim();
+            if (victim != null && sketch.frequency(victim) > sketch.frequency(id)) {
+                return;
+            }
+            if (victim != null && entries.remove(victim) != null) {
+                evictions.increment();
+            }
+        }
+        entries.put(id, new Entry(product, expiresAt));
+    }
+
+    /**
+     * Picks the least frequent of a sample of entries, or any expired one it comes across. The
+     * sample starts at a random position, so eviction is not confined to the first entries
+     * of the map's iteration order.
+     */
+    private String selectVictim() {
+        long now = System.currentTimeMillis();
+        String victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        int skip = ThreadLocalRandom.current().nextInt(Math.max(1, entries.size() - EVICTION_SAMPLE_SIZE + 1));
+        for (int i = 0; i < skip && it.hasNext(); i++) {
+            it.next();
+        }
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && it.hasNext(); i++) {
+            Map.Entry<String, Entry> candidate = it.next();
+            if (candidate.getValue().isExpired(now)) {
+                return candidate.getKey();
+            }
+            int frequency = sketch.frequency(candidate.getKey());
+            if (frequency < victimFrequency) {
+                victim = candidate.getKey();
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    private static Optional<Product> await(CompletableFuture<Optional<Product>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Callers mutate the products they get back (see ProductService.updateProduct), so the
+    // cache never hands out the instance it holds.
+    private static Product copyOf(Product product) {
+        return new Product(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getImageUrl(), product.getCategory(),
+                product.getStockQuantity(), product.getRating(), product.getActive());
+    }
+
+    private record Entry(Product product, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
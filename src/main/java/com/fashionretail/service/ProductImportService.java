@@ -0,0 +1,479 @@
+package com.fashionretail.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.dto.ImportJobStatus;
+import com.fashionretail.model.Product;
+import com.fashionretail.repository.ProductRepository;
+import com.fashionretail.util.AimdLimiter;
+import com.fashionretail.util.CsvReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Streams products from CSV or NDJSON into the Product table with parallel 25-item
+ * BatchWriteItem calls. The number of batches in flight adapts to throttling, and progress
+ * is checkpointed so that an interrupted import can be resumed by re-submitting the same
+ * input with the same job id.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    private static final int BATCH_SIZE = 25;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final long CHECKPOINT_INTERVAL_MS = 1000;
+    // Finished jobs stay queryable through getStatus for this long
+    private static final long JOB_RETENTION_MS = 3_600_000;
+    // Job ids name checkpoint files, so they must not contain path separators
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService writers;
+    private final int maxInFlight;
+    private final Path checkpointDir;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final Counter throttledBatches;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${import.max-in-flight:16}") int maxInFlight,
+                                @Value("${import.checkpoint-dir:./data/imports}") String checkpointDir,
+                                MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.maxInFlight = maxInFlight;
+        this.checkpointDir = Path.of(checkpointDir);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "product-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.importedRows = meterRegistry.counter("import.rows", "result", "imported");
+        this.failedRows = meterRegistry.counter("import.rows", "result", "failed");
+        this.throttledBatches = meterRegistry.counter("import.batches.throttled");
+    }
+
+    public ImportJobStatus getStatus(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found: " + jobId);
+        }
+        return job.toStatus();
+    }
+
+    public ImportJobStatus importProducts(InputStream in, ExportService.Format format, String jobId)
+            throws IOException, InterruptedException {
+        String id = jobId != null && !jobId.isBlank() ? jobId : UUID.randomUUID().toString();
+        if (!JOB_ID.matcher(id).matches()) {
+            throw new RuntimeException("Invalid jobId: use 1-64 letters, digits or dashes");
+        }
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(finished -> finished.finishedAt > 0 && now - finished.finishedAt > JOB_RETENTION_MS);
+        ImportJob job = new ImportJob(id, loadCheckpoint(id));
+        jobs.compute(id, (key, existing) -> {
+            if (existing != null && "RUNNING".equals(existing.state)) {
+                throw new RuntimeException("Import job already running: " + id);
+            }
+            return job;
+        });
+
+        AimdLimiter limiter = new AimdLimiter(Math.max(1, maxInFlight / 4), 1, maxInFlight, 10);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == ExportService.Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+        try {
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            Set<String> batchIds = new HashSet<>();
+            long rowNumber = 0;
+            Map<String, String> raw;
+            while ((raw = source.next()) != null) {
+                rowNumber++;
+                job.rowsRead.incrementAndGet();
+                if (rowNumber <= job.resumeFrom) {
+                    job.rowsSkipped.incrementAndGet();
+                    continue;
+                }
+                Product product;
+                try {
+                    product = toProduct(raw, id, rowNumber);
+                } catch (IllegalArgumentException e) {
+                    job.reject(rowNumber, "row " + rowNumber + ": " + e.getMessage());
+                    failedRows.increment();
+                    continue;
+                }
+                // DynamoDB rejects a batch that contains the same key twice
+                if (product.getId() != null && !batchIds.add(product.getId())) {
+                    submit(job, limiter, batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchIds.clear();
+                    batchIds.add(product.getId());
+                }
+                batch.add(new Row(rowNumber, product));
+                if (batch.size() == BATCH_SIZE) {
+                    submit(job, limiter, batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchIds.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(job, limiter, batch);
+            }
+            job.awaitBatches();
+            job.state = job.rowsFailed.get() == 0 ? "COMPLETED" : "COMPLETED_WITH_ERRORS";
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            job.awaitBatches();
+            job.state = "FAILED";
+            job.addError("aborted after row " + job.checkpoint() + ": " + e.getMessage());
+            throw e;
+        } finally {
+            saveCheckpoint(job);
+            job.finishedAt = System.currentTimeMillis();
+            log.info("Import {} {}: {} imported, {} failed, {} skipped", id, job.state,
+                    job.rowsImported.get(), job.rowsFailed.get(), job.rowsSkipped.get());
+        }
+        return job.toStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    private void submit(ImportJob job, AimdLimiter limiter, List<Row> batch) throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        limiter.acquire();
+        job.inFlight.incrementAndGet();
+        job.limit = limiter.getLimit();
+        try {
+            writers.execute(() -> {
+                try {
+                    write(job, limiter, batch);
+                } finally {
+                    limiter.release();
+                    job.batchDone();
+                    if (System.currentTimeMillis() - job.lastCheckpointAt > CHECKPOINT_INTERVAL_MS) {
+                        saveCheckpoint(job);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            limiter.release();
+            job.batchDone();
+            throw e;
+        }
+    }
+
+    private void write(ImportJob job, AimdLimiter limiter, List<Row> batch) {
+        List<Product> pending = new ArrayList<>(batch.size());
+        batch.forEach(row -> pending.add(row.product()));
+        String error = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            List<Product> unprocessed;
+            try {
+                unprocessed = productRepository.saveBatch(pending);
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException e) {
+                unprocessed = pending;
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+                break;
+            }
+            if (unprocessed.isEmpty()) {
+                pending.clear();
+                limiter.onSuccess();
+                break;
+            }
+            throttledBatches.increment();
+            limiter.onOverload();
+            pending.clear();
+            pending.addAll(unprocessed);
+            error = "throttled after " + MAX_ATTEMPTS + " attempts";
+            backoff(attempt);
+        }
+
+        long first = batch.get(0).rowNumber();
+        long last = batch.get(batch.size() - 1).rowNumber();
+        int failed = pending.size();
+        job.rowsImported.addAndGet(batch.size() - failed);
+        importedRows.increment(batch.size() - failed);
+        if (failed > 0) {
+            failedRows.increment(failed);
+            job.writeFailed(failed, "rows " + first + "-" + last + ": " + failed + " not written (" + error + ")");
+        } else {
+            job.complete(first, last);
+        }
+    }
+
+    private static void backoff(int attempt) {
+        long cap = Math.min(5000, 50L << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Rows without an id get one derived from the job id and row number, so a resumed job
+     * that re-writes rows past the checkpoint overwrites them instead of duplicating them.
+     */
+    private Product toProduct(Map<String, String> raw, String jobId, long rowNumber) {
+        Product product = new Product();
+        String id = blankToNull(raw.get("id"));
+        product.setId(id != null ? id
+                : UUID.nameUUIDFromBytes((jobId + ":" + rowNumber).getBytes(StandardCharsets.UTF_8)).toString());
+        product.setName(blankToNull(raw.get("name")));
+        product.setDescription(blankToNull(raw.get("description")));
+        product.setImageUrl(blankToNull(raw.get("imageUrl")));
+        product.setCategory(blankToNull(raw.get("category")));
+        product.setPrice(parse(raw, "price", BigDecimal::new));
+        product.setStockQuantity(parse(raw, "stockQuantity", Integer::valueOf));
+        product.setRating(parse(raw, "rating", Double::valueOf));
+        Boolean active = parse(raw, "active", Boolean::valueOf);
+        product.setActive(active != null ? active : true);
+
+        if (product.getName() == null) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (product.getPrice() == null || product.getPrice().signum() < 0) {
+            throw new IllegalArgumentException("price must be zero or positive");
+        }
+        if (product.getStockQuantity() != null && product.getStockQuantity() < 0) {
+            throw new IllegalArgumentException("stockQuantity must not be negative");
+        }
+        if (product.getRating() != null && (product.getRating() < 0 || product.getRating() > 5)) {
+            throw new IllegalArgumentException("rating must be between 0 and 5");
+        }
+        return product;
+    }
+
+    private static <T> T parse(Map<String, String> raw, String field, Function<String, T> parser) {
+        String value = blankToNull(raw.get(field));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(field + " is not valid: " + value);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+        return () -> {
+            List<String> record;
+            do {
+                record = csv.readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            if (record == null) {
+                return null;
+            }
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                row.put(columns.get(i), record.get(i));
+            }
+            return row;
+        };
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            Map<String, String> row = new HashMap<>();
+            try {
+                objectMapper.readTree(line).fields().forEachRemaining(field ->
+                        row.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+            } catch (JsonProcessingException e) {
+                // Keeps the row count aligned with the input; validation rejects the empty row
+                row.clear();
+            }
+            return row;
+        };
+    }
+
+    private long loadCheckpoint(String jobId) {
+        Path file = checkpointDir.resolve(jobId + ".checkpoint");
+        try {
+            if (Files.exists(file)) {
+                return Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Ignoring unreadable import checkpoint {}", file, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Called by the reader and by writer threads. Writes one at a time per job, to a temporary
+     * file that then replaces the checkpoint, so a crash mid-write never leaves a torn file
+     * that would restart the import from the first row.
+     */
+    private void saveCheckpoint(ImportJob job) {
+        Path file = checkpointDir.resolve(job.id + ".checkpoint");
+        Path temp = checkpointDir.resolve(job.id + ".checkpoint.tmp");
+        synchronized (job.checkpointLock) {
+            try {
+                Files.createDirectories(checkpointDir);
+                Files.writeString(temp, Long.toString(job.checkpoint()), StandardCharsets.UTF_8);
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                job.lastCheckpointAt = System.currentTimeMillis();
+            } catch (IOException e) {
+                log.warn("Could not write import checkpoint {}", file, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        Map<String, String> next() throws IOException;
+    }
+
+    private record Row(long rowNumber, Product product) {
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final long resumeFrom;
+        private final long startedAt = System.currentTimeMillis();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsFailed = new AtomicLong();
+        private final AtomicLong rowsSkipped = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        // Completed row ranges that are not yet contiguous with the checkpoint. Batches that
+        // could not be written never complete, so the checkpoint stays before them and a
+        // resume writes them (and anything after) again
+        private final TreeMap<Long, Long> completed = new TreeMap<>();
+        private long watermark;
+        private volatile String state = "RUNNING";
+        private volatile long finishedAt;
+        private volatile long lastCheckpointAt;
+        // Serializes checkpoint writes without holding up writers completing batches
+        private final Object checkpointLock = new Object();
+        private volatile int limit;
+
+        private ImportJob(String id, long resumeFrom) {
+            this.id = id;
+            this.resumeFrom = resumeFrom;
+            this.watermark = resumeFrom;
+        }
+
+        private synchronized void complete(long first, long last) {
+            completed.merge(first, last, Math::max);
+            while (!completed.isEmpty() && completed.firstKey() <= watermark + 1) {
+                watermark = Math.max(watermark, completed.pollFirstEntry().getValue());
+            }
+        }
+
+        /**
+         * A row that failed validation; it would fail again on resume, so it counts as done.
+         */
+        private void reject(long rowNumber, String error) {
+            rowsFailed.incrementAndGet();
+            addError(error);
+            complete(rowNumber, rowNumber);
+        }
+
+        /**
+         * A batch with rows that were not written, e.g. still throttled after every retry. It
+         * stays pending so that resuming the job retries it.
+         */
+        private void writeFailed(int rows, String error) {
+            rowsFailed.addAndGet(rows);
+            addError(error);
+        }
+
+        private void addError(String error) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        private synchronized long checkpoint() {
+            return watermark;
+        }
+
+        private synchronized void batchDone() {
+            inFlight.decrementAndGet();
+            notifyAll();
+        }
+
+        private synchronized void awaitBatches() throws InterruptedException {
+            while (inFlight.get() > 0) {
+                wait();
+            }
+        }
+
+        private ImportJobStatus toStatus() {
+            long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+            double seconds = Math.max(1, end - startedAt) / 1000.0;
+            double rate = (rowsImported.get() + rowsFailed.get()) / seconds;
+            return new ImportJobStatus(id, state, rowsRead.get(), rowsImported.get(), rowsFailed.get(),
+                    rowsSkipped.get(), checkpoint(), Math.round(rate * 10) / 10.0, limit,
+                    List.copyOf(errors));
+        }
+    }
+}
@@ -6,22 +6,36 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final RecommendationService recommendationService;
+    private final ImageService imageService;
 
     public List<Product> getAllProducts() {
         return productRepository.findByActiveTrue();
     }
 
     public Product getProductById(String id) {
-        return productRepository.findById(id)
+        return productCache.get(id, productRepository::findById)
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 
+    public List<Product> getRelatedProducts(String id, int limit) {
+        return recommendationService.getRelatedProductIds(id).stream()
+                .map(relatedId -> productCache.get(relatedId, productRepository::findById))
+                .flatMap(Optional::stream)
+                .filter(product -> Boolean.TRUE.equals(product.getActive()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     public List<Product> getProductsByCategory(String category) {
         return productRepository.findByCategory(category);
     }
@@ -31,7 +45,9 @@ public class ProductService {
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        imageService.pregenerate(saved.getImageUrl());
+        return saved;
     }
 
     public Product updateProduct(String id, Product productDetails) {
@@ -43,12 +59,16 @@ public class ProductService {
         product.setCategory(productDetails.getCategory());
         product.setStockQuantity(productDetails.getStockQuantity());
         product.setRating(productDetails.getRating());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.invalidate(id);
+        imageService.pregenerate(saved.getImageUrl());
+        return saved;
     }
 
     public void deleteProduct(String id) {
         Product product = getProductById(id);
         product.setActive(false);
         productRepository.save(product);
+        productCache.invalidate(id);
     }
 }
@@ -0,0 +1,227 @@
+package com.fashionretail.service;
+
+import com.fashionretail.model.Order;
+import com.fashionretail.model.OrderItem;
+import com.fashionretail.repository.OrderRepository;
+import com.fashionretail.repository.ParallelScanExecutor;
+import com.fashionretail.util.IntIntHashMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "Frequently bought together" index. Keeps a sparse, symmetric product x product
+ * co-occurrence matrix (one primitive int map per product row) and serves precomputed top-N
+ * lists so that reads never touch the matrix. Low-count pairs are pruned once the matrix
+ * grows past {@code recommendations.max-pairs}.
+ * <p>
+ * Every order is counted once, either by the startup scan or by {@link #recordOrder} from the
+ * outbox, whenever its event happens to be delivered: orders created before this node started
+ * belong to the scan, later ones to the outbox. Orders created shortly before the start may
+ * be written after the scan passed them, so for those whichever side sees the order first
+ * counts it.
+ */
+@Slf4j
+@Service
+public class RecommendationService {
+
+    // Very large baskets add quadratic noise rather than signal
+    private static final int MAX_ITEMS_PER_ORDER = 50;
+    // Longest a checkout can take between stamping createdAt and writing the order
+    private static final long IN_FLIGHT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final OrderRepository orderRepository;
+    private final ParallelScanExecutor scanExecutor;
+    private final int topN;
+    private final long maxPairs;
+    private final int bootstrapSegments;
+
+    private final Map<String, Integer> productIndex = new ConcurrentHashMap<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final List<IntIntHashMap> rows = new ArrayList<>();
+    private final Map<String, List<String>> related = new ConcurrentHashMap<>();
+    private final AtomicLong pairCount = new AtomicLong();
+    private int pruneThreshold = 2;
+
+    private final long bootstrapCutoff = System.currentTimeMillis();
+    private final Set<String> countedNearCutoff = ConcurrentHashMap.newKeySet();
+
+    public RecommendationService(OrderRepository orderRepository,
+                                 ParallelScanExecutor scanExecutor,
+                                 @Value("${recommendations.top-n:10}") int topN,
+                                 @Value("${recommendations.max-pairs:2000000}") long maxPairs,
+                                 @Value("${recommendations.bootstrap-segments:4}") int bootstrapSegments,
+                                 MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.scanExecutor = scanExecutor;
+        this.topN = topN;
+        this.maxPairs = maxPairs;
+        this.bootstrapSegments = bootstrapSegments;
+        meterRegistry.gauge("recommendations.pairs", pairCount);
+        meterRegistry.gauge("recommendations.products", productIndex, Map::size);
+    }
+
+    public List<String> getRelatedProductIds(String productId) {
+        return related.getOrDefault(productId, Collections.emptyList());
+    }
+
+    public void recordOrder(Order order) {
+        if (!countedBy(order, false)) {
+            return;
+        }
+        int[] products = index(order);
+        if (products.length < 2) {
+            return;
+        }
+        synchronized (this) {
+            addPairs(products);
+            for (int product : products) {
+                refreshRelated(product);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrapAsync() {
+        Thread thread = new Thread(this::bootstrap, "recommendations-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Rebuilds the matrix from the Order table with a parallel segmented scan on the shared
+     * scan workers.
+     */
+    public void bootstrap() {
+        long start = System.currentTimeMillis();
+        AtomicLong counted = new AtomicLong();
+        try {
+            long scanned = scanExecutor.scan(bootstrapSegments, orderRepository::scanSegment, order -> {
+                if (!countedBy(order, true)) {
+                    return;
+                }
+                int[] products = index(order);
+                if (products.length >= 2) {
+                    synchronized (this) {
+                        addPairs(products);
+                    }
+                }
+                counted.incrementAndGet();
+            });
+            synchronized (this) {
+                for (int product = 0; product < rows.size(); product++) {
+                    refreshRelated(product);
+                }
+            }
+            log.info("Recommendation index built from {} of {} orders in {} ms ({} pairs)",
+                    counted.get(), scanned, System.currentTimeMillis() - start, pairCount.get());
+        } catch (Exception e) {
+            log.warn("Recommendation bootstrap failed after {} orders; serving live updates only", counted.get(), e);
+        }
+    }
+
+    /**
+     * Whether the scan ({@code fromScan}) or the outbox should count {@code order}. Near the
+     * cutoff the first caller wins; the set only ever holds those few minutes of orders.
+     */
+    private boolean countedBy(Order order, boolean fromScan) {
+        long createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : 0;
+        if (createdAt >= bootstrapCutoff) {
+            return !fromScan;
+        }
+        if (createdAt < bootstrapCutoff - IN_FLIGHT_MILLIS) {
+            return fromScan;
+        }
+        return countedNearCutoff.add(order.getId());
+    }
+
+    private int[] index(Order order) {
+        if (order.getOrderItems() == null) {
+            return new int[0];
+        }
+        return order.getOrderItems().stream()
+                .map(OrderItem::getProductId)
+                .filter(id -> id != null)
+                .distinct()
+                .limit(MAX_ITEMS_PER_ORDER)
+                .mapToInt(this::indexOf)
+                .toArray();
+    }
+
+    private int indexOf(String productId) {
+        Integer existing = productIndex.get(productId);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            return productIndex.computeIfAbsent(productId, id -> {
+                productIds.add(id);
+                rows.add(new IntIntHashMap());
+                return productIds.size() - 1;
+            });
+        }
+    }
+
+    // Caller holds the monitor
+    private void addPairs(int[] products) {
+        for (int i = 0; i < products.length; i++) {
+            for (int j = 0; j < products.length; j++) {
+                if (i != j && rows.get(products[i]).addTo(products[j], 1) == 1) {
+                    pairCount.incrementAndGet();
+                }
+            }
+        }
+        if (pairCount.get() > maxPairs) {
+            prune();
+        }
+    }
+
+    private void prune() {
+        while (pairCount.get() > maxPairs * 3 / 4) {
+            long removed = 0;
+            for (IntIntHashMap row : rows) {
+                removed += row.removeBelow(pruneThreshold);
+            }
+            pairCount.addAndGet(-removed);
+            log.info("Pruned {} co-occurrence pairs below count {}", removed, pruneThreshold);
+            if (pairCount.get() > maxPairs * 3 / 4) {
+                pruneThreshold++;
+            }
+        }
+    }
+
+    private void refreshRelated(int product) {
+        IntIntHashMap row = rows.get(product);
+        if (row.size() == 0) {
+            related.remove(productIds.get(product));
+            return;
+        }
+        // Bounded min-heap of (count, neighbour) packed into longs
+        PriorityQueue<Long> heap = new PriorityQueue<>(topN + 1);
+        row.forEach((neighbour, count) -> {
+            heap.add(((long) count << 32) | neighbour);
+            if (heap.size() > topN) {
+                heap.poll();
+            }
+        });
+        List<String> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(productIds.get((int) (heap.poll() & 0xFFFFFFFFL)));
+        }
+        Collections.reverse(top);
+        related.put(productIds.get(product), List.copyOf(top));
+    }
+}
@@ -0,0 +1,459 @@
+package com.fashionretail.service;
+
+import com.fashionretail.dto.CategorySalesResponse;
+import com.fashionretail.dto.TopSellerResponse;
+import com.fashionretail.model.Order;
+import com.fashionretail.model.OrderItem;
+import com.fashionretail.model.SalesSnapshot;
+import com.fashionretail.util.HeavyHitters;
+import com.fashionretail.util.RollingCounters;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Incremental sales aggregates fed from checkout and cancellations. Counters are kept per
+ * product and per category over rolling windows, with a heavy-hitters sketch providing the
+ * candidate set for top sellers.
+ * <p>
+ * Each instance counts the events it handles and snapshots them to its own partition of the
+ * SalesSnapshot table, so that a restarted instance finds its counters again. An instance
+ * holds its shard with a lease row in that partition, renewed with every snapshot: it takes
+ * {@code analytics.shard-id} if set, and otherwise the first shard whose lease is free or
+ * already its own ({@code changefeed.node-id}). Startup fails rather than share a shard with a
+ * live instance, since both would overwrite each other's counters. Reads add up this instance's counters and those of every other shard,
+ * which are reloaded from the table every {@code analytics.merge-interval-ms}. A cancellation
+ * handled by another instance than its order therefore nets out once merged, and the totals
+ * shown are clamped at zero until it does.
+ */
+@Slf4j
+@Service
+public class SalesAnalyticsService {
+
+    private static final String UNCATEGORIZED = "uncategorized";
+    private static final String PRODUCT = "product";
+    private static final String CATEGORY = "category";
+    private static final int BATCH_SIZE = 25;
+    private static final String LEASE_KEY = "lease";
+
+    public enum Window {
+        HOUR(Duration.ofMinutes(1), 60),
+        DAY(Duration.ofHours(1), 24),
+        WEEK(Duration.ofHours(6), 28),
+        ALL(null, 0);
+
+        private final Duration bucket;
+        private final int buckets;
+
+        Window(Duration bucket, int buckets) {
+            this.bucket = bucket;
+            this.buckets = buckets;
+        }
+    }
+
+    private final Counters local;
+    private final Map<String, String> productNames = new ConcurrentHashMap<>();
+    private final Set<DirtyKey> dirty = ConcurrentHashMap.newKeySet();
+    // Counters of every other shard as of the last merge
+    private volatile Counters remote;
+
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<SalesSnapshot> salesSnapshotTable;
+    private final int candidates;
+    private final int configuredShardId;
+    private final int shardCount;
+    private final String nodeId;
+    private final long leaseMillis;
+    // Set once the lease is taken, before the scheduled jobs start
+    private volatile int shardId = -1;
+    private volatile boolean leaseHeld;
+
+    public SalesAnalyticsService(DynamoDbEnhancedClient enhancedClient,
+                                 DynamoDbTable<SalesSnapshot> salesSnapshotTable,
+                                 @Value("${analytics.top-sellers.candidates:1000}") int candidates,
+                                 @Value("${analytics.shard-id:-1}") int shardId,
+                                 @Value("${analytics.shard-count:8}") int shardCount,
+                                 @Value("${analytics.shard-lease-ms:180000}") long leaseMillis,
+                                 @Value("${changefeed.node-id:}") String nodeId) {
+        if (shardId < -1 || shardId >= shardCount) {
+            throw new IllegalArgumentException("analytics.shard-id must be unset or between 0 and analytics.shard-count - 1");
+        }
+        this.enhancedClient = enhancedClient;
+        this.salesSnapshotTable = salesSnapshotTable;
+        this.candidates = candidates;
+        this.configuredShardId = shardId;
+        this.shardCount = shardCount;
+        this.leaseMillis = leaseMillis;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.local = new Counters(candidates);
+        this.remote = new Counters(candidates);
+    }
+
+    public void recordOrder(Order order) {
+        record(order, 1);
+    }
+
+    public void recordCancellation(Order order) {
+        record(order, -1);
+    }
+
+    public List<TopSellerResponse> topSellers(Window window, int limit) {
+        Counters others = remote;
+        Set<String> productIds = new HashSet<>();
+        local.topProducts.top(Integer.MAX_VALUE).forEach(entry -> productIds.add(entry.key()));
+        others.topProducts.top(Integer.MAX_VALUE).forEach(entry -> productIds.add(entry.key()));
+        List<TopSellerResponse> result = new ArrayList<>();
+        for (String productId : productIds) {
+            long[] mine = local.productTotals(window, productId);
+            long[] theirs = others.productTotals(window, productId);
+            long units = mine[0] + theirs[0];
+            if (units > 0) {
+                String name = productNames.getOrDefault(productId, others.productNames.get(productId));
+                result.add(new TopSellerResponse(productId, name, units,
+                        toAmount(Math.max(0, mine[1] + theirs[1]))));
+            }
+        }
+        return result.stream()
+                .sorted(Comparator.comparing(TopSellerResponse::getUnitsSold).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<CategorySalesResponse> categorySales(Window window) {
+        Map<String, long[]> totals = local.categoryTotals(window);
+        remote.categoryTotals(window).forEach((category, theirs) -> totals.merge(category, theirs,
+                (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}));
+        return totals.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0)
+                .map(e -> new CategorySalesResponse(e.getKey(), e.getValue()[0],
+                        toAmount(Math.max(0, e.getValue()[1]))))
+                .sorted(Comparator.comparing(CategorySalesResponse::getRevenue).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!renewLease()) {
+            // Counters stay dirty and are written once the shard is ours again
+            return;
+        }
+        List<SalesSnapshot> rows = new ArrayList<>();
+        Iterator<DirtyKey> it = dirty.iterator();
+        while (it.hasNext()) {
+            DirtyKey key = it.next();
+            it.remove();
+            rows.add(toSnapshot(key));
+        }
+        try {
+            for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                WriteBatch.Builder<SalesSnapshot> batch = WriteBatch.builder(SalesSnapshot.class)
+                        .mappedTableResource(salesSnapshotTable);
+                rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())).forEach(batch::addPutItem);
+                enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                                .addWriteBatch(batch.build())
+                                .build())
+                        .unprocessedPutItemsForTable(salesSnapshotTable)
+                        .forEach(salesSnapshotTable::putItem);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to snapshot sales counters, will retry", e);
+            rows.forEach(row -> dirty.add(new DirtyKey(row.getDimension(), row.getName(),
+                    Window.valueOf(row.getWindow()), row.getEpoch())));
+        }
+    }
+
+    /**
+     * Reloads the other shards' snapshots. One query per shard, each reading no more than
+     * that shard's own restore would.
+     */
+    @Scheduled(fixedDelayString = "${analytics.merge-interval-ms:60000}")
+    public void mergeShards() {
+        if (shardCount <= 1) {
+            return;
+        }
+        Counters merged = new Counters(candidates);
+        try {
+            for (int shard = 0; shard < shardCount; shard++) {
+                if (shard != shardId) {
+                    load(shard, merged);
+                }
+            }
+            remote = merged;
+        } catch (RuntimeException e) {
+            log.warn("Could not merge sales counters of other shards, keeping the previous merge", e);
+        }
+    }
+
+    @PostConstruct
+    public void restore() {
+        shardId = claimShard();
+        log.info("Sales analytics counters on shard {} of {} (node {})", shardId, shardCount, nodeId);
+        try {
+            load(shardId, local);
+            local.productNames.forEach(productNames::putIfAbsent);
+        } catch (RuntimeException e) {
+            log.warn("Could not restore sales counters for shard {}, starting empty", shardId, e);
+        }
+        mergeShards();
+    }
+
+    private void load(int shard, Counters counters) {
+        salesSnapshotTable.query(QueryConditional.keyEqualTo(Key.builder().partitionValue(shardKey(shard)).build()))
+                .items()
+                .stream()
+                .filter(row -> !LEASE_KEY.equals(row.getSnapshotKey()))
+                .forEach(counters::restore);
+    }
+
+    /**
+     * Takes the configured shard, or the first one that is free, and fails if that is not
+     * possible: two instances on one shard would silently overwrite each other's counters.
+     */
+    private int claimShard() {
+        if (configuredShardId >= 0) {
+            if (!tryLease(configuredShardId)) {
+                throw new IllegalStateException("analytics.shard-id " + configuredShardId
+                        + " is held by another live instance; give every instance its own shard-id");
+            }
+            return configuredShardId;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (tryLease(shard)) {
+                return shard;
+            }
+        }
+        throw new IllegalStateException("All " + shardCount + " analytics shards are held by live instances; "
+                + "raise analytics.shard-count above the number of instances");
+    }
+
+    private boolean renewLease() {
+        try {
+            boolean held = tryLease(shardId);
+            if (!held && leaseHeld) {
+                log.error("Lost the lease on analytics shard {} to another instance; not snapshotting until it expires",
+                        shardId);
+            }
+            leaseHeld = held;
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the lease on analytics shard {}, will retry", shardId, e);
+        }
+        return leaseHeld;
+    }
+
+    /**
+     * Writes this instance's lease on {@code shard}, if the shard is free, its lease expired or
+     * it is already this instance's (e.g. after a restart with the same node id).
+     */
+    private boolean tryLease(int shard) {
+        long now = System.currentTimeMillis();
+        SalesSnapshot lease = new SalesSnapshot();
+        lease.setShardId(shardKey(shard));
+        lease.setSnapshotKey(LEASE_KEY);
+        lease.setLeaseOwner(nodeId);
+        lease.setLeasedUntil(now + leaseMillis);
+        try {
+            salesSnapshotTable.putItem(PutItemEnhancedRequest.builder(SalesSnapshot.class)
+                    .item(lease)
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(shardId) OR leasedUntil < :now OR leaseOwner = :owner")
+                            .putExpressionValue(":now", AttributeValue.fromN(Long.toString(now)))
+                            .putExpressionValue(":owner", AttributeValue.fromS(nodeId))
+                            .build())
+                    .build());
+            leaseHeld = true;
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private void record(Order order, int sign) {
+        long timestamp = order.getCreatedAt() != null ? order.getCreatedAt() : System.currentTimeMillis();
+        for (OrderItem item : order.getOrderItems()) {
+            String productId = item.getProductId();
+            String category = item.getCategory() != null ? item.getCategory() : UNCATEGORIZED;
+            long units = (long) item.getQuantity() * sign;
+            long revenueCents = toCents(item.getSubtotal()) * sign;
+            if (item.getProductName() != null) {
+                productNames.put(productId, item.getProductName());
+            }
+
+            addAllTime(local.allTimeProducts, PRODUCT, productId, units, revenueCents);
+            addAllTime(local.allTimeCategories, CATEGORY, category, units, revenueCents);
+            local.topProducts.offer(productId, units);
+
+            local.windows.forEach((window, counters) -> {
+                long epoch = counters.productUnits.add(productId, units, timestamp);
+                if (epoch < 0) {
+                    // Cancellation of an order older than this window
+                    return;
+                }
+                counters.productRevenue.add(productId, revenueCents, timestamp);
+                counters.categoryUnits.add(category, units, timestamp);
+                counters.categoryRevenue.add(category, revenueCents, timestamp);
+                dirty.add(new DirtyKey(PRODUCT, productId, window, epoch));
+                dirty.add(new DirtyKey(CATEGORY, category, window, epoch));
+            });
+        }
+    }
+
+    private void addAllTime(Map<String, LongAdder[]> totals, String dimension, String name,
+                            long units, long revenueCents) {
+        LongAdder[] adders = totals.computeIfAbsent(name, k -> newTotals());
+        adders[0].add(units);
+        adders[1].add(revenueCents);
+        dirty.add(new DirtyKey(dimension, name, Window.ALL, 0));
+    }
+
+    private SalesSnapshot toSnapshot(DirtyKey key) {
+        boolean product = PRODUCT.equals(key.dimension());
+        long units;
+        long revenueCents;
+        Long expiresAt = null;
+        if (key.window() == Window.ALL) {
+            LongAdder[] totals = (product ? local.allTimeProducts : local.allTimeCategories).get(key.name());
+            units = totals[0].sum();
+            revenueCents = totals[1].sum();
+        } else {
+            WindowCounters counters = local.windows.get(key.window());
+            units = (product ? counters.productUnits : counters.categoryUnits).get(key.name(), key.epoch());
+            revenueCents = (product ? counters.productRevenue : counters.categoryRevenue).get(key.name(), key.epoch());
+            long bucketMillis = key.window().bucket.toMillis();
+            expiresAt = ((key.epoch() + key.window().buckets + 1) * bucketMillis) / 1000;
+        }
+        String snapshotKey = String.join("|", key.dimension(), key.window().name(),
+                Long.toString(key.epoch()), key.name());
+        return new SalesSnapshot(shardKey(shardId), snapshotKey, key.dimension(), key.name(),
+                product ? productNames.get(key.name()) : null, key.window().name(),
+                key.epoch(), units, revenueCents, expiresAt, null, null);
+    }
+
+    private static String shardKey(int shard) {
+        return "shard-" + shard;
+    }
+
+    private static LongAdder[] newTotals() {
+        return new LongAdder[]{new LongAdder(), new LongAdder()};
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private record DirtyKey(String dimension, String name, Window window, long epoch) {
+    }
+
+    /**
+     * Units and revenue per product and category, for every window. Holds either this
+     * instance's counters or the merged counters of the other shards.
+     */
+    private static final class Counters {
+        private final Map<Window, WindowCounters> windows = new EnumMap<>(Window.class);
+        private final Map<String, LongAdder[]> allTimeProducts = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder[]> allTimeCategories = new ConcurrentHashMap<>();
+        private final Map<String, String> productNames = new ConcurrentHashMap<>();
+        private final HeavyHitters<String> topProducts;
+
+        private Counters(int candidates) {
+            this.topProducts = new HeavyHitters<>(candidates);
+            for (Window window : Window.values()) {
+                if (window != Window.ALL) {
+                    windows.put(window, new WindowCounters(window));
+                }
+            }
+        }
+
+        private long[] productTotals(Window window, String productId) {
+            WindowCounters counters = windows.get(window);
+            if (counters == null) {
+                LongAdder[] totals = allTimeProducts.get(productId);
+                return totals != null ? new long[]{totals[0].sum(), totals[1].sum()} : new long[2];
+            }
+            return new long[]{counters.productUnits.sum(productId), counters.productRevenue.sum(productId)};
+        }
+
+        private Map<String, long[]> categoryTotals(Window window) {
+            Map<String, long[]> totals = new HashMap<>();
+            WindowCounters counters = windows.get(window);
+            if (counters == null) {
+                allTimeCategories.forEach((category, adders) ->
+                        totals.put(category, new long[]{adders[0].sum(), adders[1].sum()}));
+            } else {
+                Map<String, Long> revenue = counters.categoryRevenue.sumAll();
+                counters.categoryUnits.sumAll().forEach((category, units) ->
+                        totals.put(category, new long[]{units, revenue.getOrDefault(category, 0L)}));
+            }
+            return totals;
+        }
+
+        private void restore(SalesSnapshot row) {
+            Window window = Window.valueOf(row.getWindow());
+            boolean product = PRODUCT.equals(row.getDimension());
+            if (product && row.getProductName() != null) {
+                productNames.put(row.getName(), row.getProductName());
+            }
+            if (window == Window.ALL) {
+                LongAdder[] totals = (product ? allTimeProducts : allTimeCategories)
+                        .computeIfAbsent(row.getName(), k -> newTotals());
+                totals[0].add(row.getUnits());
+                totals[1].add(row.getRevenueCents());
+                if (product) {
+                    topProducts.offer(row.getName(), row.getUnits());
+                }
+                return;
+            }
+            WindowCounters counters = windows.get(window);
+            long timestamp = row.getEpoch() * counters.productUnits.getBucketMillis();
+            (product ? counters.productUnits : counters.categoryUnits).add(row.getName(), row.getUnits(), timestamp);
+            (product ? counters.productRevenue : counters.categoryRevenue).add(row.getName(), row.getRevenueCents(), timestamp);
+        }
+    }
+
+    private static final class WindowCounters {
+        private final RollingCounters productUnits;
+        private final RollingCounters productRevenue;
+        private final RollingCounters categoryUnits;
+        private final RollingCounters categoryRevenue;
+
+        private WindowCounters(Window window) {
+            long bucketMillis = window.bucket.toMillis();
+            this.productUnits = new RollingCounters(bucketMillis, window.buckets);
+            this.productRevenue = new RollingCounters(bucketMillis, window.buckets);
+            this.categoryUnits = new RollingCounters(bucketMillis, window.buckets);
+            this.categoryRevenue = new RollingCounters(bucketMillis, window.buckets);
+        }
+    }
+}
@@ -18,7 +18,7 @@ public class UserService {
             throw new RuntimeException("Email already exists");
         }
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        return userRepository.create(user);
     }
 
     public User getUserByEmail(String email) {
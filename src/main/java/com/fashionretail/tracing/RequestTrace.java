@@ -0,0 +1,59 @@
+package com.fashionretail.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Timings collected for one HTTP request on the thread that serves it. Spans are appended
+ * when a traced call returns, so they are ordered by end time.
+ */
+public class RequestTrace {
+
+    static final int MAX_SPANS = 256;
+    // Endpoints become meter tags and map keys, so they may only take a bounded set of values
+    static final String UNMATCHED = "UNMATCHED";
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    final String method;
+    final long startEpochMillis = System.currentTimeMillis();
+    final long startNanos = System.nanoTime();
+    final boolean sampled;
+    final List<Span> spans = new ArrayList<>();
+    int depth;
+    int droppedSpans;
+    long handlerStartNanos;
+    long handlerEndNanos;
+    long endNanos;
+    String pattern;
+    int status;
+
+    RequestTrace(String method, boolean sampled) {
+        this.method = method;
+        this.sampled = sampled;
+    }
+
+    void addSpan(String layer, String name, int spanDepth, long spanStartNanos, long durationNanos, boolean error) {
+        if (spans.size() >= MAX_SPANS) {
+            droppedSpans++;
+            return;
+        }
+        spans.add(new Span(layer, name, spanDepth, spanStartNanos - startNanos, durationNanos, error));
+    }
+
+    long durationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * Method and handler pattern, e.g. {@code GET /api/orders/{id}}. Requests that never
+     * reached a handler (401/403/404/429, filter rejections) share one UNMATCHED endpoint per
+     * method instead of adding one per raw path.
+     */
+    String endpoint() {
+        return (METHODS.contains(method) ? method : "OTHER") + " " + (pattern != null ? pattern : UNMATCHED);
+    }
+
+    record Span(String layer, String name, int depth, long offsetNanos, long durationNanos, boolean error) {
+    }
+}
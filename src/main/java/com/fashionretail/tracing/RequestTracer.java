@@ -0,0 +1,189 @@
+package com.fashionretail.tracing;
+
+import com.fashionretail.util.RingBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lightweight per-request tracing. Spans are collected on the request thread for every
+ * request; when it completes, the trace is kept only if it was sampled or slower than
+ * {@code tracing.slow-threshold-ms}. Kept traces go through a lossy ring buffer to a
+ * background thread that updates timers and the slow-request exemplars, so the request
+ * thread never blocks or aggregates.
+ */
+@Slf4j
+@Component
+public class RequestTracer {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int exemplarsPerEndpoint;
+    private final RingBuffer<RequestTrace> buffer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PriorityQueue<RequestTrace>> slowest = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    private Thread exporter;
+
+    public RequestTracer(@Value("${tracing.enabled:true}") boolean enabled,
+                         @Value("${tracing.sample-rate:0.01}") double sampleRate,
+                         @Value("${tracing.slow-threshold-ms:500}") long slowThresholdMs,
+                         @Value("${tracing.buffer-size:4096}") int bufferSize,
+                         @Value("${tracing.exemplars-per-endpoint:10}") int exemplarsPerEndpoint,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.exemplarsPerEndpoint = exemplarsPerEndpoint;
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("tracing.dropped", buffer, RingBuffer::getDropped);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    RequestTrace start(String method) {
+        RequestTrace trace = new RequestTrace(method, ThreadLocalRandom.current().nextDouble() < sampleRate);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    void finish(RequestTrace trace, int status) {
+        CURRENT.remove();
+        trace.endNanos = System.nanoTime();
+        trace.status = status;
+        if (trace.sampled || trace.durationNanos() >= slowThresholdNanos) {
+            buffer.publish(trace);
+        }
+    }
+
+    static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Slowest retained requests, optionally for one endpoint (e.g. {@code POST /api/orders}),
+     * slowest first, each with its layer breakdown.
+     */
+    public List<Map<String, Object>> slowRequests(String endpoint, int limit) {
+        List<RequestTrace> traces = new ArrayList<>();
+        slowest.forEach((key, queue) -> {
+            if (endpoint == null || endpoint.equals(key)) {
+                synchronized (queue) {
+                    traces.addAll(queue);
+                }
+            }
+        });
+        return traces.stream()
+                .sorted(Comparator.comparingLong(RequestTrace::durationNanos).reversed())
+                .limit(limit)
+                .map(RequestTracer::describe)
+                .toList();
+    }
+
+    @PostConstruct
+    void startExporter() {
+        exporter = new Thread(() -> {
+            while (running) {
+                try {
+                    if (buffer.drain(this::export) == 0) {
+                        Thread.sleep(100);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    log.warn("Trace export failed", e);
+                }
+            }
+        }, "trace-exporter");
+        exporter.setDaemon(true);
+        exporter.start();
+    }
+
+    @PreDestroy
+    void stopExporter() {
+        running = false;
+        exporter.interrupt();
+    }
+
+    private void export(RequestTrace trace) {
+        String endpoint = trace.endpoint();
+        Timer.builder("tracing.request").tag("endpoint", endpoint)
+                .register(meterRegistry).record(trace.durationNanos(), TimeUnit.NANOSECONDS);
+        for (RequestTrace.Span span : trace.spans) {
+            Timer.builder("tracing.span").tag("layer", span.layer()).tag("name", span.name())
+                    .register(meterRegistry).record(span.durationNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (trace.durationNanos() < slowThresholdNanos) {
+            return;
+        }
+        PriorityQueue<RequestTrace> queue = slowest.computeIfAbsent(endpoint,
+                key -> new PriorityQueue<>(Comparator.comparingLong(RequestTrace::durationNanos)));
+        synchronized (queue) {
+            queue.add(trace);
+            if (queue.size() > exemplarsPerEndpoint) {
+                queue.poll();
+            }
+        }
+    }
+
+    private static Map<String, Object> describe(RequestTrace trace) {
+        long handlerNanos = trace.handlerEndNanos > 0 ? trace.handlerEndNanos - trace.handlerStartNanos : 0;
+        long controllerNanos = trace.spans.stream()
+                .filter(span -> span.depth() == 0)
+                .mapToLong(RequestTrace.Span::durationNanos)
+                .sum();
+
+        Map<String, Object> breakdown = new LinkedHashMap<>();
+        breakdown.put("filtersAndSecurityMs", millis(trace.durationNanos() - handlerNanos));
+        breakdown.put("handlerMs", millis(controllerNanos));
+        breakdown.put("mvcAndSerializationMs", millis(Math.max(0, handlerNanos - controllerNanos)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoint", trace.endpoint());
+        result.put("status", trace.status);
+        result.put("startedAt", trace.startEpochMillis);
+        result.put("durationMs", millis(trace.durationNanos()));
+        result.put("breakdown", breakdown);
+        result.put("spans", trace.spans.stream()
+                .sorted(Comparator.comparingLong(RequestTrace.Span::offsetNanos))
+                .map(span -> {
+                    Map<String, Object> s = new LinkedHashMap<>();
+                    s.put("layer", span.layer());
+                    s.put("name", span.name());
+                    s.put("depth", span.depth());
+                    s.put("offsetMs", millis(span.offsetNanos()));
+                    s.put("durationMs", millis(span.durationNanos()));
+                    s.put("error", span.error());
+                    return s;
+                })
+                .toList());
+        if (trace.droppedSpans > 0) {
+            result.put("droppedSpans", trace.droppedSpans);
+        }
+        return result;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.fashionretail.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every controller, service and repository call made while a request is being traced.
+ * Calls outside a request (scheduled jobs, background workers) pass straight through.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Around("within(com.fashionretail.controller..*) || within(com.fashionretail.service..*) "
+            + "|| within(com.fashionretail.repository..*)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTrace trace = RequestTracer.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+
+        Class<?> type = joinPoint.getSignature().getDeclaringType();
+        String name = type.getSimpleName() + "." + joinPoint.getSignature().getName();
+        String layer = layerOf(type.getPackageName());
+        int depth = trace.depth++;
+        long start = System.nanoTime();
+        boolean error = false;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            error = true;
+            throw t;
+        } finally {
+            trace.depth--;
+            trace.addSpan(layer, name, depth, start, System.nanoTime() - start, error);
+        }
+    }
+
+    private static String layerOf(String packageName) {
+        return packageName.substring(packageName.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.fashionretail.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter: opens the trace before security and admission control run and closes it
+ * once the response has been written.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final RequestTracer tracer;
+
+    public TracingFilter(RequestTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !tracer.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTrace trace = tracer.start(request.getMethod());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracer.finish(trace, response.getStatus());
+        }
+    }
+}
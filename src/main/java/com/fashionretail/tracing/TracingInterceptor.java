@@ -0,0 +1,35 @@
+package com.fashionretail.tracing;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Marks where Spring MVC handling starts and ends so the time spent in filters (security,
+ * admission control) can be told apart from controller work and response serialization.
+ */
+public class TracingInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTrace trace = RequestTracer.current();
+        if (trace != null) {
+            trace.handlerStartNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTrace trace = RequestTracer.current();
+        if (trace != null) {
+            trace.handlerEndNanos = System.nanoTime();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                trace.pattern = pattern.toString();
+            }
+        }
+    }
+}
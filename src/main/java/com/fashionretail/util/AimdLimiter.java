@@ -0,0 +1,57 @@
+package com.fashionretail.util;
+
+/**
+ * Concurrency limit that grows additively on success and halves on overload
+ * (additive-increase / multiplicative-decrease). Callers block in {@link #acquire()} while
+ * the number of permits in use is at the current limit.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int successesPerIncrease;
+
+    private int limit;
+    private int inUse;
+    private int successes;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, int successesPerIncrease) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.successesPerIncrease = successesPerIncrease;
+    }
+
+    public synchronized void acquire() throws InterruptedException {
+        while (inUse >= limit) {
+            wait();
+        }
+        inUse++;
+    }
+
+    public synchronized void release() {
+        inUse--;
+        notifyAll();
+    }
+
+    public synchronized void onSuccess() {
+        if (++successes >= successesPerIncrease && limit < maxLimit) {
+            limit++;
+            successes = 0;
+            notifyAll();
+        }
+    }
+
+    public synchronized void onOverload() {
+        limit = Math.max(minLimit, limit / 2);
+        successes = 0;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInUse() {
+        return inUse;
+    }
+}
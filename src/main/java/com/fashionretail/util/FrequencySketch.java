@@ -0,0 +1,71 @@
+package com.fashionretail.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free count-min sketch used to estimate how often a key has been seen recently.
+ * Counters are halved once the sample window fills up so that old popularity fades out.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicIntegerArray counters;
+    private final int widthMask;
+    private final long sampleSize;
+    private final AtomicLong additions = new AtomicLong();
+
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(expectedKeys, 16) - 1) << 1;
+        this.counters = new AtomicIntegerArray(width * DEPTH);
+        this.widthMask = width - 1;
+        this.sampleSize = 10L * width;
+    }
+
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            counters.incrementAndGet(indexOf(hash, row));
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters.get(indexOf(hash, row)));
+        }
+        return min;
+    }
+
+    private void reset() {
+        // Only one thread performs the halving; the others keep counting.
+        long current = additions.get();
+        if (current < sampleSize || !additions.compareAndSet(current, current / 2)) {
+            return;
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            int value;
+            do {
+                value = counters.get(i);
+            } while (!counters.compareAndSet(i, value, value >>> 1));
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9E3779B1;
+        h ^= h >>> 15;
+        return row * (widthMask + 1) + (h & widthMask);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45D9F3B;
+        return hash ^ (hash >>> 16);
+    }
+}
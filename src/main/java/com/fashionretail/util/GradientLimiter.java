@@ -0,0 +1,88 @@
+package com.fashionretail.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by the latency gradient: the ratio of the long-term
+ * average round-trip time to the recent one. When requests start queueing somewhere
+ * downstream the recent RTT rises, the gradient drops below one and the limit shrinks;
+ * when latency is back to normal the limit grows again by a small queue allowance.
+ */
+public class GradientLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+    private static final double LONG_RTT_ALPHA = 0.02;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double longRtt;
+    private long windowSum;
+    private int windowCount;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, int windowSize) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Takes a slot if fewer than {@code share} of the current limit are in use. Lower shares
+     * make a caller the first to be turned away as the limit shrinks.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public synchronized void onSample(long rttNanos) {
+        windowSum += rttNanos;
+        if (++windowCount < windowSize) {
+            return;
+        }
+        double shortRtt = (double) windowSum / windowCount;
+        windowSum = 0;
+        windowCount = 0;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt = longRtt * (1 - LONG_RTT_ALPHA) + shortRtt * LONG_RTT_ALPHA;
+        }
+        // Recover quickly after a long period of elevated latency
+        if (longRtt > shortRtt * 2) {
+            longRtt = shortRtt * 2;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double queueSize = Math.sqrt(limit);
+        double target = limit * gradient + queueSize;
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,112 @@
+package com.fashionretail.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Space-Saving heavy-hitters sketch. Tracks at most {@code capacity} keys and guarantees that
+ * every key whose true weight exceeds total / capacity is among them.
+ */
+public class HeavyHitters<K> {
+
+    private final int capacity;
+    private final Map<K, Counter> counters;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HeavyHitters(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K key, long weight) {
+        lock.lock();
+        try {
+            update(key, weight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the key unless another thread is currently updating the sketch. Suitable for
+     * hot read paths where dropping an occasional sample is preferable to blocking.
+     */
+    public boolean tryOffer(K key, long weight) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            update(key, weight);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The tracked keys by descending count, at most {@code limit} (and never more than the
+     * capacity) of them. A negative limit returns none.
+     */
+    public List<Entry<K>> top(int limit) {
+        List<Entry<K>> result = new ArrayList<>();
+        lock.lock();
+        try {
+            counters.forEach((key, counter) -> result.add(new Entry<>(key, counter.count, counter.error)));
+        } finally {
+            lock.unlock();
+        }
+        result.sort(Comparator.comparingLong((Entry<K> e) -> e.count()).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, Math.max(0, limit))) : result;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            counters.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(K key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count = Math.max(0, counter.count + weight);
+            return;
+        }
+        if (weight <= 0) {
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight, 0));
+            return;
+        }
+        K minKey = null;
+        Counter min = null;
+        for (Map.Entry<K, Counter> e : counters.entrySet()) {
+            if (min == null || e.getValue().count < min.count) {
+                minKey = e.getKey();
+                min = e.getValue();
+            }
+        }
+        counters.remove(minKey);
+        counters.put(key, new Counter(min.count + weight, min.count));
+    }
+
+    public record Entry<K>(K key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.fashionretail.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int-to-int map for non-negative keys. Avoids boxing so that large sparse
+ * count matrices stay compact. Not thread-safe.
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap() {
+        this(8);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int get(int key) {
+        int slot = find(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public int addTo(int key, int delta) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+            return values[slot];
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes every entry whose value is below {@code minValue} and returns how many were removed.
+     */
+    public int removeBelow(int minValue) {
+        int before = size;
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSizeFor(size));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldValues[i] >= minValue) {
+                insertFresh(oldKeys[i], oldValues[i]);
+            }
+        }
+        return before - size;
+    }
+
+    /**
+     * Approximate heap footprint of the backing arrays, in bytes.
+     */
+    public long memoryBytes() {
+        return 8L * keys.length;
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                insertFresh(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void insertFresh(int key, int value) {
+        int slot = find(key);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 4) - 1) << 1;
+        return Math.max(capacity, 8);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(int key, int value);
+    }
+}
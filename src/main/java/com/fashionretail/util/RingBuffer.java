@@ -0,0 +1,64 @@
+package com.fashionretail.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy multi-producer, single-consumer ring buffer. Producers never block: if the consumer
+ * falls more than {@code capacity} items behind, the oldest items are overwritten and counted
+ * as dropped.
+ */
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long tail;
+
+    public RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void publish(T value) {
+        long sequence = head.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, value));
+    }
+
+    /**
+     * Hands every available item to {@code consumer}. Must only be called from one thread.
+     */
+    public int drain(Consumer<T> consumer) {
+        long available = head.get();
+        if (available - tail > slots.length()) {
+            dropped.addAndGet(available - tail - slots.length());
+            tail = available - slots.length();
+        }
+        int drained = 0;
+        while (tail < available) {
+            Slot<T> slot = slots.get((int) (tail & mask));
+            if (slot == null || slot.sequence < tail) {
+                // Claimed by a producer that has not stored its item yet
+                break;
+            }
+            if (slot.sequence == tail) {
+                consumer.accept(slot.value);
+                drained++;
+            } else {
+                dropped.incrementAndGet();
+            }
+            tail++;
+        }
+        return drained;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private record Slot<T>(long sequence, T value) {
+    }
+}
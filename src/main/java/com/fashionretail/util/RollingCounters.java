@@ -0,0 +1,116 @@
+package com.fashionretail.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free rolling window of keyed counters. The window is a ring of fixed-width time buckets;
+ * each bucket holds a {@link LongAdder} per key so concurrent writers to the same key do not
+ * contend. Buckets that fall out of the window are replaced lazily by the next writer.
+ */
+public class RollingCounters {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public RollingCounters(long bucketMillis, int bucketCount) {
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * Adds {@code delta} to the bucket covering {@code timestamp}. Returns the bucket epoch that
+     * was updated, or -1 when the timestamp is older than the window.
+     */
+    public long add(String key, long delta, long timestamp) {
+        long epoch = timestamp / bucketMillis;
+        long now = System.currentTimeMillis() / bucketMillis;
+        if (epoch <= now - bucketCount || epoch > now) {
+            return -1;
+        }
+        Bucket bucket = bucketFor(epoch);
+        if (bucket == null) {
+            return -1;
+        }
+        bucket.counters.computeIfAbsent(key, k -> new LongAdder()).add(delta);
+        return epoch;
+    }
+
+    public long sum(String key) {
+        long now = System.currentTimeMillis() / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch > now - bucketCount) {
+                LongAdder adder = bucket.counters.get(key);
+                if (adder != null) {
+                    total += adder.sum();
+                }
+            }
+        }
+        return total;
+    }
+
+    public Map<String, Long> sumAll() {
+        long now = System.currentTimeMillis() / bucketMillis;
+        Map<String, Long> totals = new HashMap<>();
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.epoch > now - bucketCount) {
+                bucket.counters.forEach((key, adder) -> totals.merge(key, adder.sum(), Long::sum));
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the value of one key in one bucket, or 0 when the bucket has rotated out.
+     */
+    public long get(String key, long epoch) {
+        Bucket bucket = buckets.get(indexOf(epoch));
+        if (bucket == null || bucket.epoch != epoch) {
+            return 0;
+        }
+        LongAdder adder = bucket.counters.get(key);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    private Bucket bucketFor(long epoch) {
+        int index = indexOf(epoch);
+        while (true) {
+            Bucket current = buckets.get(index);
+            if (current != null && current.epoch == epoch) {
+                return current;
+            }
+            if (current != null && current.epoch > epoch) {
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch);
+            if (buckets.compareAndSet(index, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int indexOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) bucketCount);
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.fashionretail.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter (Almeida et al.): a chain of fixed-size filters where each new stage
+ * doubles the capacity and halves the false-positive target, so the compound false-positive
+ * rate stays below the configured one however many elements are added. Thread-safe;
+ * elements cannot be removed.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        // The stage targets form a geometric series summing to falsePositiveRate
+        stages.add(new Stage(Math.max(initialCapacity, 64), falsePositiveRate * (1 - TIGHTENING)));
+    }
+
+    private ScalableBloomFilter() {
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo}.
+     */
+    public static ScalableBloomFilter readFrom(DataInput in) throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter();
+        int stageCount = in.readInt();
+        for (int i = 0; i < stageCount; i++) {
+            int capacity = in.readInt();
+            double targetRate = in.readDouble();
+            int hashes = in.readInt();
+            int count = in.readInt();
+            long[] words = new long[in.readInt()];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = in.readLong();
+            }
+            filter.stages.add(new Stage(capacity, targetRate, hashes, count, words));
+        }
+        return filter;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(stages.size());
+        for (Stage stage : stages) {
+            out.writeInt(stage.capacity);
+            out.writeDouble(stage.targetRate);
+            out.writeInt(stage.hashes);
+            out.writeInt(stage.count.get());
+            out.writeInt(stage.bits.length());
+            for (int w = 0; w < stage.bits.length(); w++) {
+                out.writeLong(stage.bits.get(w));
+            }
+        }
+    }
+
+    public void put(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        if (mightContain(h1, h2)) {
+            return;
+        }
+        Stage stage = stages.get(stages.size() - 1);
+        if (stage.count.get() >= stage.capacity) {
+            stage = grow(stage);
+        }
+        stage.put(h1, h2);
+    }
+
+    public boolean mightContain(String value) {
+        return mightContain(hash(value, 0x9E3779B97F4A7C15L), hash(value, 0xC2B2AE3D27D4EB4FL));
+    }
+
+    /**
+     * Estimated probability that {@link #mightContain} answers true for an absent element,
+     * given the number of elements added so far.
+     */
+    public double expectedFalsePositiveRate() {
+        double allMiss = 1;
+        for (Stage stage : stages) {
+            allMiss *= 1 - stage.falsePositiveRate();
+        }
+        return 1 - allMiss;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.count.get();
+        }
+        return size;
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    /**
+     * Heap footprint of the bit arrays, in bytes.
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += 8L * stage.bits.length();
+        }
+        return bytes;
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized Stage grow(Stage full) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last != full) {
+            return last;
+        }
+        Stage next = new Stage(full.capacity * GROWTH, full.targetRate * TIGHTENING);
+        stages.add(next);
+        return next;
+    }
+
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        // MurmurHash3 finalizer
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        final int capacity;
+        final double targetRate;
+        final int hashes;
+        final long bitCount;
+        final AtomicLongArray bits;
+        final AtomicInteger count = new AtomicInteger();
+
+        Stage(int capacity, double targetRate) {
+            this.capacity = capacity;
+            this.targetRate = targetRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(targetRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+            this.bitCount = 64L * bits.length();
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        Stage(int capacity, double targetRate, int hashes, int count, long[] words) {
+            this.capacity = capacity;
+            this.targetRate = targetRate;
+            this.hashes = hashes;
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = 64L * words.length;
+            this.count.set(count);
+        }
+
+        void put(long h1, long h2) {
+            // Kirsch-Mitzenmacher: k indexes derived from two hashes
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+            count.incrementAndGet();
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double falsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashes * count.get() / bitCount), hashes);
+        }
+    }
+}
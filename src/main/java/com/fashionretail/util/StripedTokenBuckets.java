@@ -0,0 +1,82 @@
+package com.fashionretail.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-key token buckets spread over independently locked stripes, so requests from
+ * different clients rarely contend. Each stripe keeps its least recently used buckets up to a
+ * fixed size; an evicted client simply starts again with a full bucket.
+ */
+public class StripedTokenBuckets {
+
+    private final Stripe[] stripes;
+    private final double ratePerNano;
+    private final double capacity;
+
+    public StripedTokenBuckets(int stripeCount, int maxKeysPerStripe, double ratePerSecond, double capacity) {
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes {@code cost} tokens from the key's bucket. Returns 0 when admitted, otherwise the
+     * number of nanoseconds until enough tokens will have accumulated.
+     */
+    public long tryConsume(String key, double cost) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * ratePerNano);
+                bucket.updatedAt = now;
+            }
+            if (bucket.tokens >= cost) {
+                bucket.tokens -= cost;
+                return 0;
+            }
+            return (long) Math.ceil((cost - bucket.tokens) / ratePerNano);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe {
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxKeys) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeys;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
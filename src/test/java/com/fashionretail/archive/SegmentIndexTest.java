@@ -0,0 +1,104 @@
+package com.fashionretail.archive;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentIndexTest {
+
+    @Test
+    void findsTheBlockOfEveryOrder() {
+        SegmentIndex index = sampleIndex();
+
+        assertThat(index.blockFor("order-000")).isEqualTo(0);
+        assertThat(index.blockFor("order-099")).isEqualTo(0);
+        assertThat(index.blockFor("order-100")).isEqualTo(1);
+        assertThat(index.blockFor("order-299")).isEqualTo(2);
+        assertThat(index.getOffset(1)).isEqualTo(4096L);
+        assertThat(index.getLength(2)).isEqualTo(3000);
+    }
+
+    @Test
+    void mostAbsentOrdersAreRuledOutWithoutReadingABlock() {
+        SegmentIndex index = sampleIndex();
+
+        int ruledOut = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (index.blockFor("missing-" + i) == -1) {
+                ruledOut++;
+            }
+        }
+
+        assertThat(ruledOut).isGreaterThan(950);
+    }
+
+    @Test
+    void listsTheBlocksOfEachUser() {
+        SegmentIndex index = sampleIndex();
+
+        assertThat(index.blocksFor("user-0")).containsExactly(0, 1, 2);
+        assertThat(index.blocksFor("user-first-block")).containsExactly(0);
+        assertThat(index.blocksFor("nobody")).isEmpty();
+    }
+
+    @Test
+    void tracksOrderCountAndCreationRange() {
+        SegmentIndex index = sampleIndex();
+
+        assertThat(index.getOrderCount()).isEqualTo(300);
+        assertThat(index.getMinCreatedAt()).isEqualTo(1_000L);
+        assertThat(index.getMaxCreatedAt()).isEqualTo(1_299L);
+    }
+
+    @Test
+    void survivesARoundTripThroughBytes() throws IOException {
+        SegmentIndex index = sampleIndex();
+
+        SegmentIndex copy = SegmentIndex.fromBytes(index.toBytes());
+
+        assertThat(copy.getOrderCount()).isEqualTo(index.getOrderCount());
+        assertThat(copy.getMinCreatedAt()).isEqualTo(index.getMinCreatedAt());
+        assertThat(copy.getMaxCreatedAt()).isEqualTo(index.getMaxCreatedAt());
+        for (int i = 0; i < 300; i++) {
+            String orderId = String.format("order-%03d", i);
+            assertThat(copy.blockFor(orderId)).isEqualTo(index.blockFor(orderId));
+        }
+        assertThat(copy.getOffset(2)).isEqualTo(index.getOffset(2));
+        assertThat(copy.blocksFor("user-0")).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void rejectsDataOfAnotherFormat() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(0x12345678);
+            out.writeInt(1);
+        }
+
+        assertThatThrownBy(() -> SegmentIndex.fromBytes(bytes.toByteArray()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Unsupported");
+    }
+
+    /**
+     * Three blocks of 100 orders each, ids sorted; user-0 has an order in every block.
+     */
+    private static SegmentIndex sampleIndex() {
+        SegmentIndex.Builder builder = new SegmentIndex.Builder(300);
+        for (int i = 0; i < 300; i++) {
+            String orderId = String.format("order-%03d", i);
+            if (i % 100 == 0) {
+                builder.addBlock(orderId, (i / 100) * 4096L, 1000 * (i / 100 + 1));
+            }
+            String userId = i % 50 == 0 ? "user-0" : i == 1 ? "user-first-block" : "user-" + i;
+            builder.addOrder(orderId, userId, 1_000L + i);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.fashionretail.changefeed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fashionretail.model.ChangeRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileChangeLogTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsNothingBeforeTheFirstAppend() {
+        FileChangeLog log = new FileChangeLog(directory.resolve("changes.ndjson"), objectMapper);
+
+        assertThat(log.readAfter(ChangeSequence.startingAt(0), 10)).isEmpty();
+    }
+
+    @Test
+    void returnsRecordsAfterTheCheckpointInSequenceOrder() {
+        FileChangeLog log = new FileChangeLog(directory.resolve("feed/changes.ndjson"), objectMapper);
+        ChangeRecord first = record(1000, "node_a", 1, "p1");
+        ChangeRecord second = record(2000, "node_b", 1, "p2");
+        ChangeRecord third = record(3000, "node_a", 2, "p3");
+        // Another node's later record appended first
+        log.append(List.of(third));
+        log.append(List.of(first, second));
+
+        assertThat(ids(log.readAfter(ChangeSequence.startingAt(0), 10))).containsExactly("p1", "p2", "p3");
+        assertThat(ids(log.readAfter(first.getSequence(), 10))).containsExactly("p2", "p3");
+        assertThat(ids(log.readAfter(third.getSequence(), 10))).isEmpty();
+    }
+
+    @Test
+    void limitsToTheOldestRecords() {
+        FileChangeLog log = new FileChangeLog(directory.resolve("changes.ndjson"), objectMapper);
+        log.append(List.of(record(3000, "node_a", 3, "p3"), record(1000, "node_a", 1, "p1"),
+                record(2000, "node_a", 2, "p2")));
+
+        assertThat(ids(log.readAfter(ChangeSequence.startingAt(0), 2))).containsExactly("p1", "p2");
+    }
+
+    @Test
+    void twoInstancesShareOneFile() {
+        Path file = directory.resolve("changes.ndjson");
+        FileChangeLog nodeA = new FileChangeLog(file, objectMapper);
+        FileChangeLog nodeB = new FileChangeLog(file, objectMapper);
+        nodeA.append(List.of(record(1000, "node_a", 1, "p1")));
+
+        List<ChangeRecord> seen = nodeB.readAfter(ChangeSequence.startingAt(0), 10);
+
+        assertThat(seen).hasSize(1);
+        assertThat(seen.get(0).getEntityId()).isEqualTo("p1");
+        assertThat(seen.get(0).getNodeId()).isEqualTo("node_a");
+        assertThat(seen.get(0).getOperation()).isEqualTo(ChangeRecord.Operation.SAVE);
+    }
+
+    @Test
+    void skipsAPartiallyWrittenLine() throws IOException {
+        Path file = directory.resolve("changes.ndjson");
+        FileChangeLog log = new FileChangeLog(file, objectMapper);
+        log.append(List.of(record(1000, "node_a", 1, "p1")));
+        Files.writeString(file, "{\"sequence\":\"00000000020", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        assertThat(ids(log.readAfter(ChangeSequence.startingAt(0), 10))).containsExactly("p1");
+    }
+
+    private static ChangeRecord record(long timestamp, String nodeId, long counter, String productId) {
+        ChangeRecord record = new ChangeRecord();
+        record.setSequence(ChangeSequence.of(timestamp, nodeId, counter));
+        record.setEntityType(ChangeRecord.EntityType.PRODUCT);
+        record.setEntityId(productId);
+        record.setOperation(ChangeRecord.Operation.SAVE);
+        record.setNodeId(nodeId);
+        record.setTimestamp(timestamp);
+        return record;
+    }
+
+    private static List<String> ids(List<ChangeRecord> records) {
+        return records.stream().map(ChangeRecord::getEntityId).toList();
+    }
+}
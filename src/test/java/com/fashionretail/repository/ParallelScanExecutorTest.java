@@ -0,0 +1,92 @@
+package com.fashionretail.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ParallelScanExecutorTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final ParallelScanExecutor executor = new ParallelScanExecutor(2, 4, 1000);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void deliversEveryItemOfEverySegment() throws Exception {
+        ConcurrentLinkedQueue<Integer> items = new ConcurrentLinkedQueue<>();
+
+        long delivered = executor.scan(2, (segment, total) -> IntStream.range(0, 100).map(i -> i * total + segment).boxed(),
+                items::add);
+
+        assertThat(delivered).isEqualTo(200);
+        assertThat(items).containsExactlyInAnyOrderElementsOf(IntStream.range(0, 200).boxed().toList());
+    }
+
+    @Test
+    void clampsSegmentsToWorkers() {
+        assertThat(executor.segmentsFor(0)).isEqualTo(1);
+        assertThat(executor.segmentsFor(-5)).isEqualTo(1);
+        assertThat(executor.segmentsFor(1000)).isEqualTo(2);
+    }
+
+    @Test
+    void failingSinkReleasesWorkersForLaterScans() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            for (int run = 0; run < 3; run++) {
+                assertThatThrownBy(() -> executor.scan(2, (segment, total) -> endless(), item -> {
+                    throw new IllegalStateException("client went away");
+                })).isInstanceOf(IllegalStateException.class);
+            }
+            assertThat(executor.scan(2, (segment, total) -> Stream.of(1, 2, 3), item -> { })).isEqualTo(6);
+        });
+    }
+
+    @Test
+    void stopsAfterMaxItemsAndReleasesWorkers() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            for (int run = 0; run < 3; run++) {
+                assertThat(executor.scan(2, (segment, total) -> endless(), item -> { }, 10)).isEqualTo(10);
+            }
+            assertThat(executor.scan(2, (segment, total) -> Stream.of(1, 2, 3), item -> { })).isEqualTo(6);
+        });
+    }
+
+    @Test
+    void propagatesScannerFailure() {
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThatThrownBy(() -> executor.scan(2, (segment, total) -> {
+            if (segment == 1) {
+                throw new IllegalArgumentException("segment failed");
+            }
+            return endless();
+        }, item -> { })).isInstanceOf(IllegalArgumentException.class));
+    }
+
+    @Test
+    void stopsWorkersThatIgnoreInterrupts() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            // Like an SDK call that swallows the interrupt: only the abandoned flag stops it
+            assertThat(executor.scan(2, (segment, total) -> Stream.iterate(0, i -> {
+                Thread.interrupted();
+                return i + 1;
+            }), item -> { }, 5)).isEqualTo(5);
+            assertThat(executor.scan(2, (segment, total) -> List.of(1).stream(), item -> { })).isEqualTo(2);
+        });
+    }
+
+    private static Stream<Integer> endless() {
+        return Stream.iterate(0, i -> i + 1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecordsUntilEndOfInput() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("id,name,price\n1,Shirt,19.99\n"));
+
+        assertThat(reader.readRecord()).containsExactly("id", "name", "price");
+        assertThat(reader.readRecord()).containsExactly("1", "Shirt", "19.99");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void readsALastRecordWithoutLineBreak() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\nc,d"));
+
+        assertThat(reader.readRecord()).containsExactly("a", "b");
+        assertThat(reader.readRecord()).containsExactly("c", "d");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(",x,,\n"));
+
+        assertThat(reader.readRecord()).containsExactly("", "x", "", "");
+    }
+
+    @Test
+    void unquotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "1,\"Shirt, linen\",\"The \"\"classic\"\" fit\"\n2,\"two\nlines\",x\n"));
+
+        assertThat(reader.readRecord()).containsExactly("1", "Shirt, linen", "The \"classic\" fit");
+        assertThat(reader.readRecord()).containsExactly("2", "two\nlines", "x");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void acceptsWindowsLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\r\nc,\"d\"\r\n"));
+
+        assertThat(reader.readRecord()).containsExactly("a", "b");
+        assertThat(reader.readRecord()).containsExactly("c", "d");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void quoteInsideAnUnquotedFieldIsLiteral() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("5\"5,x\n"));
+
+        assertThat(reader.readRecord()).containsExactly("5\"5", "x");
+    }
+}
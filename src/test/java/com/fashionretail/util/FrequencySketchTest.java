@@ -0,0 +1,69 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void unseenKeyHasNoFrequency() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        assertThat(sketch.frequency("product-1")).isZero();
+    }
+
+    @Test
+    void estimatesNeverUndercount() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int key = 0; key < 200; key++) {
+            for (int i = 0; i <= key % 10; i++) {
+                sketch.increment("product-" + key);
+            }
+        }
+
+        for (int key = 0; key < 200; key++) {
+            assertThat(sketch.frequency("product-" + key)).isGreaterThanOrEqualTo(key % 10 + 1);
+        }
+    }
+
+    @Test
+    void halvesCountersOnceTheSampleWindowFills() {
+        // 16 counters per row, so the sample window is 160 additions
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("hot");
+        }
+        assertThat(sketch.frequency("hot")).isGreaterThanOrEqualTo(100);
+
+        for (int i = 0; i < 60; i++) {
+            sketch.increment("cold-" + i);
+        }
+
+        // 100 own increments plus at most 60 colliding ones, halved
+        assertThat(sketch.frequency("hot")).isBetween(50, 80);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws InterruptedException {
+        FrequencySketch sketch = new FrequencySketch(100_000);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    sketch.increment("hot");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(sketch.frequency("hot")).isEqualTo(4000);
+    }
+}
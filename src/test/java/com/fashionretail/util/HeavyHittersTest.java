@@ -0,0 +1,76 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void returnsKeysByDescendingCountUpToTheLimit() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        sketch.offer("a", 3);
+        sketch.offer("b", 7);
+        sketch.offer("c", 5);
+
+        List<HeavyHitters.Entry<String>> top = sketch.top(2);
+
+        assertThat(top).containsExactly(new HeavyHitters.Entry<>("b", 7, 0), new HeavyHitters.Entry<>("c", 5, 0));
+    }
+
+    @Test
+    void negativeOrZeroLimitReturnsNothing() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        sketch.offer("a", 1);
+
+        assertThat(sketch.top(0)).isEmpty();
+        assertThat(sketch.top(-1)).isEmpty();
+    }
+
+    @Test
+    void replacesTheSmallestCounterAndRecordsItsCountAsError() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(2);
+        sketch.offer("a", 5);
+        sketch.offer("b", 1);
+        sketch.offer("c", 2);
+
+        assertThat(sketch.top(10)).containsExactly(new HeavyHitters.Entry<>("a", 5, 0), new HeavyHitters.Entry<>("c", 3, 1));
+    }
+
+    @Test
+    void keepsEveryKeyAboveTotalOverCapacity() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        for (int i = 0; i < 500; i++) {
+            sketch.offer("cold-" + i, 1);
+            if (i % 5 == 0) {
+                sketch.offer("hot", 1);
+            }
+        }
+
+        // "hot" has 100 of 600, well above 600 / 10
+        assertThat(sketch.top(10)).anyMatch(entry -> entry.key().equals("hot") && entry.count() >= 100);
+    }
+
+    @Test
+    void negativeWeightsDecrementTrackedKeysOnly() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        sketch.offer("a", 5);
+        sketch.offer("a", -2);
+        sketch.offer("b", -3);
+        sketch.offer("c", 1);
+        sketch.offer("c", -4);
+
+        assertThat(sketch.top(10)).containsExactly(new HeavyHitters.Entry<>("a", 3, 0), new HeavyHitters.Entry<>("c", 0, 0));
+    }
+
+    @Test
+    void clearForgetsEveryKey() {
+        HeavyHitters<String> sketch = new HeavyHitters<>(10);
+        sketch.offer("a", 1);
+        sketch.clear();
+
+        assertThat(sketch.top(10)).isEmpty();
+    }
+}
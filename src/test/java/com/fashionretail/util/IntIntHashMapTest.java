@@ -0,0 +1,80 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntIntHashMapTest {
+
+    @Test
+    void absentKeysReadAsZero() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        assertThat(map.get(0)).isZero();
+        assertThat(map.get(42)).isZero();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void addToAccumulatesAndReturnsTheNewValue() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        assertThat(map.addTo(0, 1)).isEqualTo(1);
+        assertThat(map.addTo(0, 2)).isEqualTo(3);
+        assertThat(map.addTo(7, 5)).isEqualTo(5);
+
+        assertThat(map.get(0)).isEqualTo(3);
+        assertThat(map.get(7)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        for (int key = 0; key < 10_000; key++) {
+            map.addTo(key * 31, key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int key = 0; key < 10_000; key++) {
+            assertThat(map.get(key * 31)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    void forEachVisitsEveryEntryOnce() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.addTo(key, key + 1);
+            expected.put(key, key + 1);
+        }
+
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach((key, value) -> assertThat(visited.put(key, value)).isNull());
+
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void removeBelowDropsSmallValuesAndKeepsTheRest() {
+        IntIntHashMap map = new IntIntHashMap();
+        for (int key = 0; key < 1000; key++) {
+            map.addTo(key, key % 4);
+        }
+
+        int removed = map.removeBelow(2);
+
+        assertThat(removed).isEqualTo(500);
+        assertThat(map.size()).isEqualTo(500);
+        for (int key = 0; key < 1000; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 4 >= 2 ? key % 4 : 0);
+        }
+        // Still usable after the table was rebuilt smaller
+        assertThat(map.addTo(1, 1)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(501);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferTest {
+
+    @Test
+    void drainsInPublishOrder() {
+        RingBuffer<String> buffer = new RingBuffer<>(8);
+        buffer.publish("a");
+        buffer.publish("b");
+        buffer.publish("c");
+        List<String> drained = new ArrayList<>();
+
+        assertThat(buffer.drain(drained::add)).isEqualTo(3);
+        assertThat(drained).containsExactly("a", "b", "c");
+        assertThat(buffer.drain(drained::add)).isZero();
+        assertThat(buffer.getDropped()).isZero();
+    }
+
+    @Test
+    void overwritesTheOldestItemsWhenTheConsumerFallsBehind() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 10; i++) {
+            buffer.publish(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        buffer.drain(drained::add);
+
+        assertThat(drained).containsExactly(6, 7, 8, 9);
+        assertThat(buffer.getDropped()).isEqualTo(6L);
+    }
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(5);
+        for (int i = 0; i < 8; i++) {
+            buffer.publish(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        buffer.drain(drained::add);
+
+        assertThat(drained).hasSize(8);
+        assertThat(buffer.getDropped()).isZero();
+    }
+
+    @Test
+    void keepsEveryItemOfConcurrentProducersThatFit() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(8192);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 1000;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.publish(base + i);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Set<Integer> drained = new HashSet<>();
+
+        assertThat(buffer.drain(drained::add)).isEqualTo(4000);
+        assertThat(drained).hasSize(4000);
+        assertThat(buffer.getDropped()).isZero();
+    }
+}
@@ -0,0 +1,72 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollingCountersTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    // One-minute buckets over an hour
+    private final RollingCounters counters = new RollingCounters(MINUTE, 60);
+
+    @Test
+    void sumsEveryBucketInTheWindow() {
+        long now = System.currentTimeMillis();
+        counters.add("p1", 2, now);
+        counters.add("p1", 3, now - 10 * MINUTE);
+        counters.add("p2", 7, now - 20 * MINUTE);
+
+        assertThat(counters.sum("p1")).isEqualTo(5L);
+        assertThat(counters.sum("p2")).isEqualTo(7L);
+        assertThat(counters.sum("p3")).isZero();
+        assertThat(counters.sumAll()).isEqualTo(Map.of("p1", 5L, "p2", 7L));
+    }
+
+    @Test
+    void returnsTheUpdatedEpoch() {
+        long timestamp = System.currentTimeMillis() - 10 * MINUTE;
+
+        long epoch = counters.add("p1", 4, timestamp);
+        counters.add("p1", -1, timestamp);
+
+        assertThat(epoch).isEqualTo(timestamp / MINUTE);
+        assertThat(counters.get("p1", epoch)).isEqualTo(3L);
+        assertThat(counters.get("p1", epoch - 1)).isZero();
+    }
+
+    @Test
+    void ignoresTimestampsOutsideTheWindow() {
+        long now = System.currentTimeMillis();
+
+        assertThat(counters.add("p1", 1, now - 2 * 60 * MINUTE)).isEqualTo(-1L);
+        assertThat(counters.add("p1", 1, now + 2 * MINUTE)).isEqualTo(-1L);
+        assertThat(counters.sum("p1")).isZero();
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counters.add("p1", 1, now);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(counters.sum("p1")).isEqualTo(40_000L);
+    }
+}
@@ -0,0 +1,87 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void emptyFilterContainsNothing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("alice@example.com")).isFalse();
+        assertThat(filter.size()).isZero();
+    }
+
+    @Test
+    void growsPastItsInitialCapacityWithoutFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        assertThat(filter.stageCount()).isGreaterThan(1);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+    }
+
+    @Test
+    void keepsTheFalsePositiveRateNearTheTarget() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain("other" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(filter.expectedFalsePositiveRate()).isLessThanOrEqualTo(0.01);
+        assertThat(falsePositives / 20_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void duplicatesAreNotCountedTwice() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        filter.put("alice@example.com");
+        filter.put("alice@example.com");
+
+        assertThat(filter.size()).isEqualTo(1L);
+    }
+
+    @Test
+    void survivesAWriteAndReadRoundTrip() throws IOException {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 500; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        ScalableBloomFilter copy = ScalableBloomFilter.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(copy.stageCount()).isEqualTo(filter.stageCount());
+        assertThat(copy.size()).isEqualTo(filter.size());
+        assertThat(copy.memoryBytes()).isEqualTo(filter.memoryBytes());
+        for (int i = 0; i < 500; i++) {
+            assertThat(copy.mightContain("user" + i + "@example.com")).isTrue();
+        }
+        // Still grows after being read back
+        for (int i = 500; i < 2000; i++) {
+            copy.put("user" + i + "@example.com");
+        }
+        assertThat(copy.mightContain("user1999@example.com")).isTrue();
+    }
+}
@@ -0,0 +1,67 @@
+package com.fashionretail.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketsTest {
+
+    @Test
+    void admitsABurstThenReportsTheWait() {
+        // One token every 1000 seconds, so nothing refills during the test
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 0.001, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryConsume("ip:10.0.0.1", 1)).isZero();
+        }
+        long waitNanos = buckets.tryConsume("ip:10.0.0.1", 1);
+
+        assertThat(waitNanos).isGreaterThan(TimeUnit.SECONDS.toNanos(900));
+        assertThat(waitNanos).isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+    }
+
+    @Test
+    void costsAreWeighted() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 0.001, 10);
+
+        assertThat(buckets.tryConsume("user:alice", 5)).isZero();
+        assertThat(buckets.tryConsume("user:alice", 5)).isZero();
+        assertThat(buckets.tryConsume("user:alice", 1)).isPositive();
+    }
+
+    @Test
+    void keysHaveTheirOwnBuckets() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 0.001, 1);
+
+        assertThat(buckets.tryConsume("ip:10.0.0.1", 1)).isZero();
+        assertThat(buckets.tryConsume("ip:10.0.0.1", 1)).isPositive();
+        assertThat(buckets.tryConsume("ip:10.0.0.2", 1)).isZero();
+        assertThat(buckets.size()).isEqualTo(2);
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // A token per millisecond
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4, 100, 1000, 1);
+        assertThat(buckets.tryConsume("ip:10.0.0.1", 1)).isZero();
+
+        Thread.sleep(20);
+
+        assertThat(buckets.tryConsume("ip:10.0.0.1", 1)).isZero();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedKeyOfAFullStripe() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 2, 0.001, 1);
+        buckets.tryConsume("a", 1);
+        buckets.tryConsume("b", 1);
+        buckets.tryConsume("c", 1);
+
+        assertThat(buckets.size()).isEqualTo(2);
+        // "a" was evicted and starts again with a full bucket; "c" is still empty
+        assertThat(buckets.tryConsume("a", 1)).isZero();
+        assertThat(buckets.tryConsume("c", 1)).isPositive();
+    }
+}